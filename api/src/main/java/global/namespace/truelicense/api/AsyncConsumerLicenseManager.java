@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+import global.namespace.fun.io.api.Source;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Defines the life cycle management operations for license keys in consumer applications which run asynchronously.
+ * Each operation returns immediately with a future which completes on a thread of the {@linkplain #executor executor}
+ * when the respective operation of the {@linkplain #sync synchronous} consumer license manager completes, or
+ * completes exceptionally with a {@link LicenseManagementException} as the reason for the failure.
+ * This is useful for applications which must not block their calling thread, e.g. an event loop.
+ * <p>
+ * Because an asynchronous consumer license manager delegates to a synchronous consumer license manager, it uses the
+ * same caches.
+ * An implementation may coalesce concurrent calls to {@link #verify} and {@link #loadSnapshot} into a single call to
+ * the synchronous consumer license manager whose outcome gets shared.
+ *
+ * @see ConsumerLicenseManager#async(Executor)
+ */
+public interface AsyncConsumerLicenseManager {
+
+    /**
+     * Verifies the digital signature of the license key in the given source and copies it to the configured store.
+     *
+     * @param source the source to read the license key from.
+     * @see ConsumerLicenseManager#install(Source)
+     */
+    default CompletableFuture<Void> install(Source source) {
+        return AsyncLicenseManager.callAsync(() -> {
+            sync().install(source);
+            return null;
+        }, executor());
+    }
+
+    /**
+     * Loads the installed license key and returns an unvalidated duplicate of its encoded license bean.
+     *
+     * @see ConsumerLicenseManager#load()
+     */
+    default CompletableFuture<License> load() {
+        return AsyncLicenseManager.callAsync(sync()::load, executor());
+    }
+
+    /**
+     * Loads the installed license key and returns an unvalidated, immutable snapshot of its encoded license bean.
+     *
+     * @see ConsumerLicenseManager#loadSnapshot()
+     */
+    default CompletableFuture<LicenseSnapshot> loadSnapshot() {
+        return AsyncLicenseManager.callAsync(sync()::loadSnapshot, executor());
+    }
+
+    /**
+     * Loads the installed license key and verifies its encoded license bean.
+     *
+     * @see ConsumerLicenseManager#verify()
+     */
+    default CompletableFuture<Void> verify() {
+        return AsyncLicenseManager.callAsync(() -> {
+            sync().verify();
+            return null;
+        }, executor());
+    }
+
+    /**
+     * Uninstalls the installed license key.
+     *
+     * @see ConsumerLicenseManager#uninstall()
+     */
+    default CompletableFuture<Void> uninstall() {
+        return AsyncLicenseManager.callAsync(() -> {
+            sync().uninstall();
+            return null;
+        }, executor());
+    }
+
+    /** Returns the synchronous consumer license manager which runs the operations. */
+    ConsumerLicenseManager sync();
+
+    /** Returns the executor which runs the operations. */
+    Executor executor();
+}
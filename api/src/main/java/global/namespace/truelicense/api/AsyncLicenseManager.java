@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Provides utilities for asynchronous license managers.
+ *
+ * @see AsyncConsumerLicenseManager
+ * @see AsyncVendorLicenseManager
+ */
+final class AsyncLicenseManager {
+
+    private AsyncLicenseManager() {
+    }
+
+    static <V> CompletableFuture<V> callAsync(final Callable<V> task, final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+import global.namespace.fun.io.api.Sink;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Defines the life cycle management operations for license keys in vendor applications which run asynchronously.
+ * Each operation returns immediately with a future which completes on a thread of the {@linkplain #executor executor}
+ * when the respective operation of the {@linkplain #sync synchronous} vendor license manager completes, or completes
+ * exceptionally with a {@link LicenseManagementException} as the reason for the failure.
+ *
+ * @see VendorLicenseManager#async(Executor)
+ */
+public interface AsyncVendorLicenseManager {
+
+    /**
+     * Generates a license key for the given license bean and saves it to the given sink.
+     *
+     * @param bean the license bean to process.
+     *             This bean is not modified.
+     * @param sink the sink for saving the license key.
+     * @return A future for the duplicate of the license bean which is encoded in the generated license key.
+     * @see VendorLicenseManager#generateKeyFrom(License)
+     */
+    default CompletableFuture<License> generateKeyFrom(License bean, Sink sink) {
+        return AsyncLicenseManager.callAsync(() -> sync().generateKeyFrom(bean).saveTo(sink).license(), executor());
+    }
+
+    /** Returns the synchronous vendor license manager which runs the operations. */
+    VendorLicenseManager sync();
+
+    /** Returns the executor which runs the operations. */
+    Executor executor();
+}
@@ -6,6 +6,12 @@ package global.namespace.truelicense.api;
 
 import global.namespace.fun.io.api.Source;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * Defines the life cycle management operations for license keys in consumer applications.
  * <p>
@@ -50,6 +56,20 @@ public interface ConsumerLicenseManager extends LicenseManagerMixin {
      */
     License load() throws LicenseManagementException;
 
+    /**
+     * Loads the installed license key and returns an unvalidated, immutable snapshot of its encoded license bean.
+     * This is like {@link #load}, but the returned snapshot can be shared between threads and cached without copying
+     * it, so it's the better choice for callers who read license properties frequently, e.g. per request.
+     * An implementation may return the same snapshot again as long as the installed license key doesn't change.
+     * <p>
+     * The default implementation returns a snapshot of the license bean returned by {@link #load}.
+     *
+     * @return An unvalidated, immutable snapshot of the license bean which is encoded in the installed license key.
+     */
+    default LicenseSnapshot loadSnapshot() throws LicenseManagementException {
+        return LicenseSnapshot.of(load());
+    }
+
     /**
      * Loads the installed license key and verifies its encoded license bean.
      * You should call this method whenever you want to verify access to a feature of your software product.
@@ -62,6 +82,53 @@ public interface ConsumerLicenseManager extends LicenseManagerMixin {
      */
     void verify() throws LicenseManagementException;
 
+    /**
+     * Verifies the license keys in the given sources concurrently using the given executor and returns a future for
+     * each of them, in the order of the given sources.
+     * Each future completes with a duplicate of the validated license bean which is encoded in the license key or
+     * exceptionally with a {@link LicenseManagementException} as the reason for the failure, e.g. a
+     * {@link LicenseValidationException} if the license has expired.
+     * This is useful for license servers which need to verify many license keys uploaded by their customers.
+     * <p>
+     * Unlike {@link #verify}, this operation neither reads the configured store nor uses any caches, so it does not
+     * interfere with the installed license key.
+     * If the executor is multi-threaded, then any custom license validation needs to be thread-safe.
+     * <p>
+     * Calling this operation performs an initial
+     * {@linkplain LicenseManagementAuthorization#clearVerify authorization check} for all license keys.
+     * <p>
+     * The default implementation verifies each license key by installing it into a new consumer license manager which
+     * gets built from the {@linkplain #context() context}, the authentication and the encryption of this consumer
+     * license manager and which holds the license key in memory.
+     * So the authorization checks of the new consumer license manager apply to each license key instead.
+     *
+     * @param sources  the sources to read the license keys from.
+     * @param executor the executor for verifying the license keys,
+     *                 e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * @return The futures for the validated license beans, in the order of the given sources.
+     */
+    default List<CompletableFuture<License>> verifyKeys(
+            final Iterable<? extends Source> sources,
+            final Executor executor
+    ) throws LicenseManagementException {
+        final LicenseManagerParameters parameters = parameters();
+        final List<CompletableFuture<License>> futures = new ArrayList<>();
+        for (final Source source : sources) {
+            futures.add(AsyncLicenseManager.callAsync(() -> {
+                final ConsumerLicenseManager manager = context()
+                        .consumer()
+                        .authentication(parameters.authentication())
+                        .encryption(parameters.encryption())
+                        .storeIn(new TransientStore())
+                        .build();
+                manager.install(source);
+                manager.verify();
+                return manager.load();
+            }, executor));
+        }
+        return futures;
+    }
+
     /**
      * Uninstalls the installed license key.
      * <p>
@@ -70,6 +137,29 @@ public interface ConsumerLicenseManager extends LicenseManagerMixin {
      */
     void uninstall() throws LicenseManagementException;
 
+    /**
+     * Adapts this consumer license manager so that its operations run asynchronously using the given executor.
+     *
+     * @param executor the executor for running the operations,
+     *                 e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * @return the adapted asynchronous consumer license manager.
+     */
+    default AsyncConsumerLicenseManager async(final Executor executor) {
+        Objects.requireNonNull(executor);
+        return new AsyncConsumerLicenseManager() {
+
+            @Override
+            public ConsumerLicenseManager sync() {
+                return ConsumerLicenseManager.this;
+            }
+
+            @Override
+            public Executor executor() {
+                return executor;
+            }
+        };
+    }
+
     /**
      * Adapts this consumer license manager so that it generally throws an {@link UncheckedLicenseManagementException}
      * instead of a (checked) {@link LicenseManagementException} if an operation fails.
@@ -75,6 +75,8 @@ public interface ConsumerLicenseManagerBuilder
      * If a non-zero {@linkplain #ftpDays free trial period} (FTP) is
      * configured, then the store will be used for the auto-generated FTP
      * license key and MUST BE KEPT SECRET!
+     * The size of the license key is limited by the
+     * {@linkplain LicenseManagementContextBuilder#maxKeySize maximum key size}.
      *
      * @return {@code this}.
      */
@@ -86,6 +88,15 @@ public interface ConsumerLicenseManagerBuilder
      * If a non-zero {@linkplain #ftpDays free trial period} (FTP) is
      * configured, then the store will be used for the auto-generated FTP
      * license key and MUST BE KEPT SECRET!
+     * <p>
+     * The store caches the content of the license key in memory for the
+     * {@linkplain LicenseManagementContextBuilder#cachePeriodMillis cache period}.
+     * Changes made through the preferences API of this JVM invalidate the
+     * cached content immediately, but changes made by another process only
+     * get noticed once the cache period has elapsed, unless the preferences
+     * backend reports them as events.
+     * Set the cache period to zero in order to read the license key from the
+     * preferences backend each time.
      *
      * @return {@code this}.
      */
@@ -97,6 +108,15 @@ public interface ConsumerLicenseManagerBuilder
      * If a non-zero {@linkplain #ftpDays free trial period} (FTP) is
      * configured, then the store will be used for the auto-generated FTP
      * license key and MUST BE KEPT SECRET!
+     * <p>
+     * The store caches the content of the license key in memory for the
+     * {@linkplain LicenseManagementContextBuilder#cachePeriodMillis cache period}.
+     * Changes made through the preferences API of this JVM invalidate the
+     * cached content immediately, but changes made by another process only
+     * get noticed once the cache period has elapsed, unless the preferences
+     * backend reports them as events.
+     * Set the cache period to zero in order to read the license key from the
+     * preferences backend each time.
      *
      * @return {@code this}.
      */
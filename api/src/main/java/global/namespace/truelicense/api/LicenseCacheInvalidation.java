@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+/**
+ * A strategy for detecting external changes to the license key in the store of a consumer license manager, e.g. when
+ * another process replaces the license key file.
+ * Any cached intermediate results are invalidated when either the cache period elapses or an external change is
+ * detected, whatever happens first.
+ */
+public enum LicenseCacheInvalidation {
+
+    /**
+     * Does not detect any external changes, so cached intermediate results are only invalidated when the cache period
+     * elapses.
+     */
+    timeout,
+
+    /**
+     * Detects external changes by comparing the size, last modification time and file key of the license key file.
+     * This is the cheapest strategy, but it's only applicable if the store is a file in a path.
+     * For any other store, {@link #content} is used instead.
+     */
+    metadata,
+
+    /**
+     * Detects external changes by comparing a hash of the (encrypted) content of the store.
+     * This requires reading the store, but none of the expensive steps of decoding the license key, i.e. decryption,
+     * decompression and signature verification.
+     * Note that the store gets read and hashed using SHA-256 on every operation of the consumer license manager which
+     * accesses it, including any call to {@link ConsumerLicenseManager#verify()} which would otherwise be served from
+     * the cache without any I/O.
+     * For a license key of a few kilobytes, this adds a few microseconds plus the cost of reading the store, so prefer
+     * {@link #metadata} if the store is a file in a path.
+     */
+    content
+}
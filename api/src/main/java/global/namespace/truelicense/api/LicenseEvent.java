@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An event in the life cycle of the license key of a consumer license manager.
+ * This class is immutable.
+ *
+ * @see LicenseEventSource#addListener(LicenseListener)
+ */
+public final class LicenseEvent {
+
+    private final ConsumerLicenseManager manager;
+    private final LicenseEventType type;
+    private final Optional<LicenseSnapshot> license;
+
+    /**
+     * Constructs a new license event.
+     *
+     * @param manager the consumer license manager which has published the event.
+     * @param type the type of the event.
+     * @param license the snapshot of the license, if any.
+     */
+    public LicenseEvent(
+            final ConsumerLicenseManager manager,
+            final LicenseEventType type,
+            final Optional<LicenseSnapshot> license
+    ) {
+        this.manager = Objects.requireNonNull(manager);
+        this.type = Objects.requireNonNull(type);
+        this.license = Objects.requireNonNull(license);
+    }
+
+    /** Returns the consumer license manager which has published this event. */
+    public ConsumerLicenseManager manager() {
+        return manager;
+    }
+
+    /** Returns the type of this event. */
+    public LicenseEventType type() {
+        return type;
+    }
+
+    /**
+     * Returns the snapshot of the license.
+     * This is empty if and only if the type of this event is {@link LicenseEventType#uninstalled}.
+     */
+    public Optional<LicenseSnapshot> license() {
+        return license;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH, "%s[type=%s, license=%s]", getClass().getName(), type, license);
+    }
+}
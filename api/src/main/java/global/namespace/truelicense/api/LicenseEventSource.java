@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+/**
+ * Publishes events in the life cycle of the installed license key of a consumer license manager to its listeners.
+ * Installing or uninstalling the license key using the consumer license manager publishes an event immediately.
+ * A different license key which has been put into the store by another party publishes an event as soon as the
+ * consumer license manager detects it, e.g. when {@linkplain ConsumerLicenseManager#verify verifying} the license key
+ * after its cache period has elapsed.
+ * Reaching the start of the validity period, the configured expiry warning period or the end of the validity period of
+ * the license publishes an event by a single timer which gets scheduled for the next of these instants.
+ * <p>
+ * The consumer license managers which are built by a {@linkplain LicenseManagementContext license management context}
+ * implement this interface, so an application can cast them - or the
+ * {@linkplain UncheckedConsumerLicenseManager#checked() checked} counterpart of an unchecked consumer license
+ * manager - to this interface.
+ * Implementations must be thread-safe.
+ *
+ * @see LicenseManagementContextBuilder#expiryWarningMillis(long)
+ */
+public interface LicenseEventSource {
+
+    /** Adds the given listener for events in the life cycle of the installed license key. */
+    void addListener(LicenseListener listener);
+
+    /** Removes the given listener for events in the life cycle of the installed license key. */
+    void removeListener(LicenseListener listener);
+}
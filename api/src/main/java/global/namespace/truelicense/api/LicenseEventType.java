@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+/**
+ * The type of a {@link LicenseEvent}.
+ */
+public enum LicenseEventType {
+
+    /**
+     * A license key has been installed or a different license key has been detected in the store.
+     * Reinstalling a license key for the same license doesn't publish this event again.
+     */
+    installed,
+
+    /**
+     * The license key has been uninstalled.
+     */
+    uninstalled,
+
+    /**
+     * The start of the validity period of the license has been reached.
+     */
+    becameValid,
+
+    /**
+     * The end of the validity period of the license is closer than the configured expiry warning period.
+     *
+     * @see LicenseManagementContextBuilder#expiryWarningMillis(long)
+     */
+    expiringSoon,
+
+    /**
+     * The end of the validity period of the license has passed.
+     */
+    expired
+}
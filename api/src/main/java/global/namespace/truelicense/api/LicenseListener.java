@@ -0,0 +1,21 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+/**
+ * Listens to events in the life cycle of the license key of a consumer license manager, so that an application can
+ * react to them instead of polling {@link ConsumerLicenseManager#verify()}.
+ * A listener gets called on the thread which has caused or detected the event, e.g. the thread which has installed the
+ * license key or a background timer thread which is shared by all consumer license managers.
+ * So implementations must be thread-safe and should return quickly.
+ *
+ * @see LicenseEventSource#addListener(LicenseListener)
+ */
+@FunctionalInterface
+public interface LicenseListener {
+
+    /** Handles the given license event. */
+    void licenseChanged(LicenseEvent event);
+}
@@ -48,6 +48,30 @@ extends GenBuilder<LicenseManagementContext> {
      */
     LicenseManagementContextBuilder cachePeriodMillis(long cachePeriodMillis);
 
+    /**
+     * Sets the time in milliseconds before the end of the cache period when a consumer license manager should
+     * re-validate its installed license key in the background (optional).
+     * Meanwhile, any callers keep being served from the cached intermediate results, so that they don't need to pay for
+     * decoding the license key again when the cache period elapses.
+     * Any non-negative value is valid.
+     * If this method is not called or zero is passed, then refreshing ahead is disabled.
+     * Refreshing ahead is also disabled if the given value is not less than the cache period.
+     *
+     * @see #cachePeriodMillis(long)
+     * @return {@code this}
+     */
+    LicenseManagementContextBuilder cacheRefreshAheadMillis(long cacheRefreshAheadMillis);
+
+    /**
+     * Sets the strategy for detecting external changes to the license key before the cache period elapses (optional).
+     * If this method is not called, then {@link LicenseCacheInvalidation#timeout} is used.
+     * Using another strategy makes it safe to configure a very long cache period.
+     *
+     * @see #cachePeriodMillis(long)
+     * @return {@code this}
+     */
+    LicenseManagementContextBuilder cacheInvalidation(LicenseCacheInvalidation invalidation);
+
     /**
      * Sets the clock (optional).
      * If this method is not called, then the system clock is used.
@@ -91,6 +115,28 @@ extends GenBuilder<LicenseManagementContext> {
      */
     LicenseManagementContextBuilder encryptionFactory(EncryptionFactory encryptionFactory);
 
+    /**
+     * Sets whether or not password based encryptions should cache the secret keys which they derive from the
+     * password, salt and iteration count (optional).
+     * If this method is not called, then no keys are cached, so each encryption and decryption needs to derive its key
+     * again, which may be expensive depending on the iteration count of the encryption algorithm.
+     *
+     * @see global.namespace.truelicense.api.crypto.EncryptionParameters#keyCaching()
+     * @return {@code this}
+     */
+    LicenseManagementContextBuilder encryptionKeyCaching(boolean encryptionKeyCaching);
+
+    /**
+     * Sets the time in milliseconds before the end of the validity period of a license when a consumer license manager
+     * should publish an {@link LicenseEventType#expiringSoon} event to its listeners (optional).
+     * Any non-negative value is valid.
+     * If this method is not called or zero is passed, then no such events are published.
+     *
+     * @see LicenseEventSource#addListener(LicenseListener)
+     * @return {@code this}
+     */
+    LicenseManagementContextBuilder expiryWarningMillis(long expiryWarningMillis);
+
     /**
      * Sets the custom license initialization (optional).
      *
@@ -116,6 +162,25 @@ extends GenBuilder<LicenseManagementContext> {
      */
     LicenseManagementContextBuilder licenseFactory(LicenseFactory licenseFactory);
 
+    /**
+     * Sets the maximum size of a license key in bytes when reading it from or writing it to a path (optional).
+     * An oversized license key gets rejected before it's read into memory.
+     * Any non-negative value is valid.
+     * If this method is not called, then the maximum size is 16 MiB.
+     *
+     * @see ConsumerLicenseManagerBuilder#storeInPath(java.nio.file.Path)
+     * @return {@code this}
+     */
+    LicenseManagementContextBuilder maxKeySize(int maxKeySize);
+
+    /**
+     * Sets the metrics for receiving measurements from the license managers (optional).
+     * If this method is not called, then {@link LicenseManagementMetrics#NONE} is used.
+     *
+     * @return {@code this}
+     */
+    LicenseManagementContextBuilder metrics(LicenseManagementMetrics metrics);
+
     /**
      * Sets the password policy (optional).
      *
@@ -154,6 +219,8 @@ extends GenBuilder<LicenseManagementContext> {
 
     /**
      * Sets the custom license validation (optional).
+     * Unless the custom license validation is {@linkplain LicenseValidation#timeIndependent() time-independent},
+     * a caching consumer license manager needs to call it whenever it verifies the license key.
      *
      * @see #validationComposition(LicenseFunctionComposition)
      * @return {@code this}
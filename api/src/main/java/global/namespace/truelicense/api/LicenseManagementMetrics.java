@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+/**
+ * Receives measurements from the license managers, e.g. in order to export them to a monitoring system.
+ * Implementations must be thread-safe and should return quickly because they get called on the hot path of the license
+ * managers.
+ */
+public interface LicenseManagementMetrics {
+
+    /**
+     * This instance discards all measurements.
+     */
+    LicenseManagementMetrics NONE = new LicenseManagementMetrics() {
+    };
+
+    /**
+     * Records the time spent in the given stage of decoding and validating a license key.
+     * The time of a stage excludes the time of any nested stage, e.g. the time of decompressing a license key excludes
+     * the time of decrypting it.
+     *
+     * @param stage the stage.
+     * @param durationNanos the duration in nanoseconds.
+     */
+    default void timing(LicenseManagementStage stage, long durationNanos) {
+    }
+
+    /**
+     * Records that a lookup in a cache of a consumer license manager has succeeded.
+     * A consumer license manager caches multiple intermediate results, so a single operation may report multiple
+     * lookups.
+     */
+    default void cacheHit() {
+    }
+
+    /**
+     * Records that a lookup in a cache of a consumer license manager has failed.
+     */
+    default void cacheMiss() {
+    }
+
+    /**
+     * Records that an entry in a cache of a consumer license manager has been removed because its cache period has
+     * elapsed or an external change to the license key has been detected.
+     *
+     * @see LicenseManagementContextBuilder#cachePeriodMillis(long)
+     * @see LicenseManagementContextBuilder#cacheInvalidation(LicenseCacheInvalidation)
+     */
+    default void cacheExpiration() {
+    }
+
+    /**
+     * Records that an entry in a cache of a consumer license manager has been removed because the maximum size of the
+     * cache has been exceeded.
+     */
+    default void cacheEviction() {
+    }
+
+    /**
+     * Records that the content of a store has been read from memory instead of its backend.
+     * This is the case for a consumer license manager which stores its license key in the system or user preferences.
+     *
+     * @see ConsumerLicenseManagerBuilder#storeInSystemPreferences(Class)
+     * @see ConsumerLicenseManagerBuilder#storeInUserPreferences(Class)
+     */
+    default void storeCacheHit() {
+    }
+
+    /**
+     * Records that the content of a store had to be read from its backend.
+     */
+    default void storeCacheMiss() {
+    }
+
+    /**
+     * Records that a license key could only be decoded by first decompressing and then decrypting it.
+     * This is the case for license keys which have been generated by TrueLicense 4.0.0 or 4.0.1.
+     */
+    default void filterOrderFallback() {
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+/**
+ * Enumerates the stages of decoding and validating a license key in a consumer license manager.
+ *
+ * @see LicenseManagementMetrics#timing(LicenseManagementStage, long)
+ */
+public enum LicenseManagementStage {
+
+    /** Decrypting the license key, including reading it from its source. */
+    decryption,
+
+    /** Decompressing the decrypted license key. */
+    decompression,
+
+    /** Decoding the repository model and the license bean with the codec. */
+    decoding,
+
+    /** Verifying the digital signature of the encoded license bean in the repository model. */
+    authentication,
+
+    /** Validating the decoded license bean. */
+    validation
+}
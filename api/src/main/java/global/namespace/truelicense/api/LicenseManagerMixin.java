@@ -4,10 +4,13 @@
  */
 package global.namespace.truelicense.api;
 
+import global.namespace.fun.io.api.Filter;
+import global.namespace.truelicense.api.crypto.Encryption;
+
 /**
  * A mix-in for a license manager.
  */
-public interface LicenseManagerMixin {
+public interface LicenseManagerMixin extends AutoCloseable {
 
     /**
      * Returns the license manager parameters.
@@ -20,4 +23,22 @@ public interface LicenseManagerMixin {
     default LicenseManagementContext context() {
         return parameters().context();
     }
+
+    /**
+     * Destroys any cached key material of this license manager, e.g. the keys loaded by its authentication or derived
+     * by its encryption.
+     * The license manager remains usable, so any subsequent operation loads or derives the keys again.
+     * <p>
+     * The default implementation closes the authentication and - if it's an {@link Encryption} - the encryption from
+     * the license manager parameters.
+     */
+    @Override
+    default void close() {
+        final LicenseManagerParameters parameters = parameters();
+        parameters.authentication().close();
+        final Filter encryption = parameters.encryption();
+        if (encryption instanceof Encryption) {
+            ((Encryption) encryption).close();
+        }
+    }
 }
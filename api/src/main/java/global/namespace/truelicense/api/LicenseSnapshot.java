@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+import javax.security.auth.x500.X500Principal;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of the properties of a license.
+ * Unlike a license bean, a snapshot can be shared between threads and cached without copying it.
+ * The dates are held as milliseconds since the epoch, so that {@link #issuedMillis()}, {@link #notAfterMillis()} and
+ * {@link #notBeforeMillis()} can be read without allocating an object, and the hash code is computed only once.
+ * The {@linkplain #getExtra() extra} property is captured by reference, so it should be immutable, too.
+ * <p>
+ * All setters throw an {@link UnsupportedOperationException}.
+ * A snapshot is {@linkplain #equals(Object) equal} to any license bean with the same properties and vice versa.
+ *
+ * @see ConsumerLicenseManager#loadSnapshot()
+ */
+public final class LicenseSnapshot implements License {
+
+    private final int consumerAmount;
+    private final String consumerType;
+    private final Object extra;
+    private final X500Principal holder;
+    private final String info;
+    private final boolean hasIssued, hasNotAfter, hasNotBefore;
+    private final long issuedMillis, notAfterMillis, notBeforeMillis;
+    private final X500Principal issuer;
+    private final String subject;
+    private final int hashCode;
+
+    private LicenseSnapshot(final License license) {
+        this.consumerAmount = license.getConsumerAmount();
+        this.consumerType = license.getConsumerType();
+        this.extra = license.getExtra();
+        this.holder = license.getHolder();
+        this.info = license.getInfo();
+        final Date issued = license.getIssued();
+        this.hasIssued = null != issued;
+        this.issuedMillis = hasIssued ? issued.getTime() : Long.MIN_VALUE;
+        this.issuer = license.getIssuer();
+        final Date notAfter = license.getNotAfter();
+        this.hasNotAfter = null != notAfter;
+        this.notAfterMillis = hasNotAfter ? notAfter.getTime() : Long.MAX_VALUE;
+        final Date notBefore = license.getNotBefore();
+        this.hasNotBefore = null != notBefore;
+        this.notBeforeMillis = hasNotBefore ? notBefore.getTime() : Long.MIN_VALUE;
+        this.subject = license.getSubject();
+        this.hashCode = computeHashCode();
+    }
+
+    /**
+     * Returns a snapshot of the properties of the given license.
+     * If the given license is already a snapshot, then it gets returned as is.
+     */
+    public static LicenseSnapshot of(final License license) {
+        return license instanceof LicenseSnapshot
+                ? (LicenseSnapshot) license
+                : new LicenseSnapshot(Objects.requireNonNull(license));
+    }
+
+    @Override
+    public int getConsumerAmount() {
+        return consumerAmount;
+    }
+
+    @Override
+    public String getConsumerType() {
+        return consumerType;
+    }
+
+    @Override
+    public Object getExtra() {
+        return extra;
+    }
+
+    @Override
+    public X500Principal getHolder() {
+        return holder;
+    }
+
+    @Override
+    public String getInfo() {
+        return info;
+    }
+
+    /** Returns a new date for the issue date or {@code null} if there is none. */
+    @Override
+    public Date getIssued() {
+        return hasIssued ? new Date(issuedMillis) : null;
+    }
+
+    /**
+     * Returns the issue date in milliseconds since the epoch or {@link Long#MIN_VALUE} if there is none.
+     */
+    public long issuedMillis() {
+        return issuedMillis;
+    }
+
+    @Override
+    public X500Principal getIssuer() {
+        return issuer;
+    }
+
+    /** Returns a new date for the end of the validity period or {@code null} if there is none. */
+    @Override
+    public Date getNotAfter() {
+        return hasNotAfter ? new Date(notAfterMillis) : null;
+    }
+
+    /**
+     * Returns the end of the validity period in milliseconds since the epoch or {@link Long#MAX_VALUE} if there is
+     * none.
+     */
+    public long notAfterMillis() {
+        return notAfterMillis;
+    }
+
+    /** Returns a new date for the start of the validity period or {@code null} if there is none. */
+    @Override
+    public Date getNotBefore() {
+        return hasNotBefore ? new Date(notBeforeMillis) : null;
+    }
+
+    /**
+     * Returns the start of the validity period in milliseconds since the epoch or {@link Long#MIN_VALUE} if there is
+     * none.
+     */
+    public long notBeforeMillis() {
+        return notBeforeMillis;
+    }
+
+    @Override
+    public String getSubject() {
+        return subject;
+    }
+
+    @Override
+    public void setConsumerAmount(int consumerAmount) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setConsumerType(String consumerType) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setExtra(Object extra) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setHolder(X500Principal holder) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setInfo(String info) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setIssued(Date issued) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setIssuer(X500Principal issuer) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNotAfter(Date notAfter) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNotBefore(Date notBefore) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setTerm(int days) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setSubject(String subject) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("License snapshots are immutable.");
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof License)) {
+            return false;
+        }
+        final License that = (License) obj;
+        if (that instanceof LicenseSnapshot) {
+            final LicenseSnapshot s = (LicenseSnapshot) that;
+            return this.hashCode == s.hashCode &&
+                    this.consumerAmount == s.consumerAmount &&
+                    Objects.equals(this.consumerType, s.consumerType) &&
+                    Objects.equals(this.extra, s.extra) &&
+                    Objects.equals(this.holder, s.holder) &&
+                    Objects.equals(this.info, s.info) &&
+                    this.hasIssued == s.hasIssued && this.issuedMillis == s.issuedMillis &&
+                    Objects.equals(this.issuer, s.issuer) &&
+                    this.hasNotAfter == s.hasNotAfter && this.notAfterMillis == s.notAfterMillis &&
+                    this.hasNotBefore == s.hasNotBefore && this.notBeforeMillis == s.notBeforeMillis &&
+                    Objects.equals(this.subject, s.subject);
+        }
+        return that.canEqual(this) &&
+                this.consumerAmount == that.getConsumerAmount() &&
+                Objects.equals(this.consumerType, that.getConsumerType()) &&
+                Objects.equals(this.extra, that.getExtra()) &&
+                Objects.equals(this.holder, that.getHolder()) &&
+                Objects.equals(this.info, that.getInfo()) &&
+                Objects.equals(this.getIssued(), that.getIssued()) &&
+                Objects.equals(this.issuer, that.getIssuer()) &&
+                Objects.equals(this.getNotAfter(), that.getNotAfter()) &&
+                Objects.equals(this.getNotBefore(), that.getNotBefore()) &&
+                Objects.equals(this.subject, that.getSubject());
+    }
+
+    /** Returns the same hash code as any license bean with the same properties. */
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private int computeHashCode() {
+        int c = 17;
+        c = 31 * c + consumerAmount;
+        c = 31 * c + Objects.hashCode(consumerType);
+        c = 31 * c + Objects.hashCode(extra);
+        c = 31 * c + Objects.hashCode(holder);
+        c = 31 * c + Objects.hashCode(info);
+        c = 31 * c + (hasIssued ? Long.hashCode(issuedMillis) : 0);
+        c = 31 * c + Objects.hashCode(issuer);
+        c = 31 * c + (hasNotAfter ? Long.hashCode(notAfterMillis) : 0);
+        c = 31 * c + (hasNotBefore ? Long.hashCode(notBeforeMillis) : 0);
+        c = 31 * c + Objects.hashCode(subject);
+        return c;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH,
+                "%s@%x[subject=%s, holder=%s, issuer=%s, issued=%tc, notBefore=%tc, notAfter=%tc, consumerType=%s, consumerAmount=%d, info=%s]",
+                getClass().getName(),
+                hashCode(),
+                literal(subject),
+                literal(holder),
+                literal(issuer),
+                getIssued(),
+                getNotBefore(),
+                getNotAfter(),
+                literal(consumerType),
+                consumerAmount,
+                literal(info));
+    }
+
+    private static String literal(final Object obj) {
+        if (null == obj) {
+            return null;
+        }
+        final String s = obj.toString();
+        return '"' +
+                s.replace("\\", "\\\\")
+                        .replace("\"", "\\\"") +
+                '"';
+    }
+}
@@ -11,4 +11,16 @@ public interface LicenseValidation {
 
     /** Validates the properties of the given license bean. */
     void validate(License bean) throws LicenseValidationException;
+
+    /**
+     * Returns {@code true} if and only if the outcome of {@link #validate} only depends on the properties of the given
+     * license bean, but not on the current time or any other external state.
+     * If this is the case, then a caching consumer license manager may skip this validation when verifying a license
+     * key until the cached license or the license itself expires.
+     * <p>
+     * The default implementation returns {@code false}.
+     */
+    default boolean timeIndependent() {
+        return false;
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.api;
+
+import global.namespace.fun.io.api.NoContentException;
+import global.namespace.fun.io.api.Socket;
+import global.namespace.fun.io.api.Store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.OptionalLong;
+
+/**
+ * A store which holds its content in memory.
+ * This is used by the default implementation of {@link ConsumerLicenseManager#verifyKeys}.
+ * This class is thread-safe.
+ */
+final class TransientStore implements Store {
+
+    private volatile byte[] content;
+
+    @Override
+    public Socket<InputStream> input() {
+        return () -> new ByteArrayInputStream(checkedContent());
+    }
+
+    @Override
+    public Socket<OutputStream> output() {
+        return () -> new ByteArrayOutputStream(BUFSIZE) {
+
+            @Override
+            public void close() {
+                content = toByteArray();
+            }
+        };
+    }
+
+    @Override
+    public void delete() throws IOException {
+        checkedContent();
+        content = null;
+    }
+
+    @Override
+    public OptionalLong size() {
+        final byte[] content = this.content;
+        return null == content ? OptionalLong.empty() : OptionalLong.of(content.length);
+    }
+
+    private byte[] checkedContent() throws NoContentException {
+        final byte[] content = this.content;
+        if (null == content) {
+            throw new NoContentException();
+        }
+        return content;
+    }
+}
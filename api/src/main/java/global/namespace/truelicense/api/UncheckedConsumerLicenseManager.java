@@ -6,6 +6,10 @@ package global.namespace.truelicense.api;
 
 import global.namespace.fun.io.api.Source;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * Defines the life cycle management operations for license keys in consumer applications.
  * <p>
@@ -63,6 +67,18 @@ public interface UncheckedConsumerLicenseManager extends ConsumerLicenseManager
         return UncheckedLicenseManager.callUnchecked(checked()::load);
     }
 
+    /**
+     * Loads the installed license key and returns an unvalidated, immutable snapshot of its encoded license bean.
+     * This is like {@link #load}, but the returned snapshot can be shared between threads and cached without copying
+     * it, so it's the better choice for callers who read license properties frequently, e.g. per request.
+     * An implementation may return the same snapshot again as long as the installed license key doesn't change.
+     *
+     * @return An unvalidated, immutable snapshot of the license bean which is encoded in the installed license key.
+     */
+    default LicenseSnapshot loadSnapshot() throws UncheckedLicenseManagementException {
+        return UncheckedLicenseManager.callUnchecked(checked()::loadSnapshot);
+    }
+
     /**
      * Loads the installed license key and verifies its encoded license bean.
      * You should call this method whenever you want to verify access to a feature of your software product.
@@ -81,6 +97,35 @@ public interface UncheckedConsumerLicenseManager extends ConsumerLicenseManager
         });
     }
 
+    /**
+     * Verifies the license keys in the given sources concurrently using the given executor and returns a future for
+     * each of them, in the order of the given sources.
+     * Each future completes with a duplicate of the validated license bean which is encoded in the license key or
+     * exceptionally with a {@link LicenseManagementException} as the reason for the failure, e.g. a
+     * {@link LicenseValidationException} if the license has expired.
+     * This is useful for license servers which need to verify many license keys uploaded by their customers.
+     * <p>
+     * Unlike {@link #verify}, this operation neither reads the configured store nor uses any caches, so it does not
+     * interfere with the installed license key.
+     * If the executor is multi-threaded, then any custom license validation needs to be thread-safe.
+     * Note that the futures still complete exceptionally with a (checked) {@link LicenseManagementException}.
+     * <p>
+     * Calling this operation performs an initial
+     * {@linkplain LicenseManagementAuthorization#clearVerify authorization check} for all license keys.
+     *
+     * @param sources  the sources to read the license keys from.
+     * @param executor the executor for verifying the license keys,
+     *                 e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * @return The futures for the validated license beans, in the order of the given sources.
+     */
+    @Override
+    default List<CompletableFuture<License>> verifyKeys(
+            Iterable<? extends Source> sources,
+            Executor executor
+    ) throws UncheckedLicenseManagementException {
+        return UncheckedLicenseManager.callUnchecked(() -> checked().verifyKeys(sources, executor));
+    }
+
     /**
      * Uninstalls the installed license key.
      * <p>
@@ -94,6 +139,11 @@ public interface UncheckedConsumerLicenseManager extends ConsumerLicenseManager
         });
     }
 
+    @Override
+    default void close() {
+        checked().close();
+    }
+
     @Override
     default UncheckedConsumerLicenseManager unchecked() {
         return this;
@@ -6,6 +6,10 @@ package global.namespace.truelicense.api;
 
 import global.namespace.fun.io.api.Sink;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
 /**
  * Defines the life cycle management operations for license keys in vendor applications alias key generators.
  * <p>
@@ -48,6 +52,42 @@ public interface UncheckedVendorLicenseManager extends VendorLicenseManager {
         });
     }
 
+    /**
+     * Generates license keys for the given license beans and saves them to the sinks which are returned by the given
+     * function.
+     * The function gets called on the current thread in the order of the given beans, while the license keys get
+     * generated concurrently using the given executor.
+     * So if the executor is multi-threaded, then any custom license initialization and validation need to be
+     * thread-safe.
+     * If generating any license key fails, then the generation of the license keys which haven't started yet gets
+     * cancelled and the exception of the first failure gets thrown, while the license keys which are already being
+     * generated may still get saved.
+     * <p>
+     * Calling this operation performs an
+     * {@linkplain LicenseManagementAuthorization#clearGenerate authorization check} for each bean.
+     *
+     * @param beans    the license beans to process.
+     *                 These beans are not modified.
+     * @param sinks    the function which returns the sink for saving the license key for a given license bean.
+     * @param executor the executor for generating the license keys,
+     *                 e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * @return The duplicates of the license beans which are encoded in the generated license keys, in the order of
+     *         the given beans.
+     */
+    @Override
+    default List<License> generateKeysFrom(
+            Iterable<? extends License> beans,
+            Function<? super License, ? extends Sink> sinks,
+            Executor executor
+    ) throws UncheckedLicenseManagementException {
+        return UncheckedLicenseManager.callUnchecked(() -> checked().generateKeysFrom(beans, sinks, executor));
+    }
+
+    @Override
+    default void close() {
+        checked().close();
+    }
+
     @Override
     default UncheckedVendorLicenseManager unchecked() {
         return this;
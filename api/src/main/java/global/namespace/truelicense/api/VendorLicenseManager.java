@@ -4,6 +4,17 @@
  */
 package global.namespace.truelicense.api;
 
+import global.namespace.fun.io.api.Sink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
 /**
  * Defines the life cycle management operations for license keys in vendor applications alias key generators.
  * <p>
@@ -25,6 +36,92 @@ public interface VendorLicenseManager extends LicenseManagerMixin {
      */
     LicenseKeyGenerator generateKeyFrom(License bean) throws LicenseManagementException;
 
+    /**
+     * Generates license keys for the given license beans and saves them to the sinks which are returned by the given
+     * function.
+     * The function gets called on the current thread in the order of the given beans, while the license keys get
+     * generated concurrently using the given executor.
+     * So if the executor is multi-threaded, then any custom license initialization and validation need to be
+     * thread-safe.
+     * If generating any license key fails, then the generation of the license keys which haven't started yet gets
+     * cancelled and the exception of the first failure gets thrown, while the license keys which are already being
+     * generated may still get saved.
+     * <p>
+     * Calling this operation performs an
+     * {@linkplain LicenseManagementAuthorization#clearGenerate authorization check} for each bean.
+     * The default implementation calls {@link #generateKeyFrom} for each bean.
+     *
+     * @param beans    the license beans to process.
+     *                 These beans are not modified.
+     * @param sinks    the function which returns the sink for saving the license key for a given license bean.
+     * @param executor the executor for generating the license keys,
+     *                 e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * @return The duplicates of the license beans which are encoded in the generated license keys, in the order of
+     *         the given beans.
+     */
+    default List<License> generateKeysFrom(
+            final Iterable<? extends License> beans,
+            final Function<? super License, ? extends Sink> sinks,
+            final Executor executor
+    ) throws LicenseManagementException {
+        // Gets completed with the first failure, which cancels all outstanding futures:
+        final CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        final List<CompletableFuture<License>> futures = new ArrayList<>();
+        for (final License bean : beans) {
+            final Sink sink = sinks.apply(bean);
+            final CompletableFuture<License> future =
+                    AsyncLicenseManager.callAsync(() -> generateKeyFrom(bean).saveTo(sink).license(), executor);
+            future.whenComplete((license, e) -> {
+                if (null != e) {
+                    failure.complete(e instanceof CompletionException && null != e.getCause() ? e.getCause() : e);
+                }
+            });
+            failure.thenRun(() -> future.cancel(false));
+            futures.add(future);
+        }
+        final List<License> licenses = new ArrayList<>(futures.size());
+        for (final CompletableFuture<License> future : futures) {
+            try {
+                licenses.add(future.join());
+            } catch (CompletionException | CancellationException e) {
+                final Throwable cause = failure.getNow(e);
+                if (cause instanceof LicenseManagementException) {
+                    throw (LicenseManagementException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new CompletionException(cause);
+                }
+            }
+        }
+        return licenses;
+    }
+
+    /**
+     * Adapts this vendor license manager so that its operations run asynchronously using the given executor.
+     *
+     * @param executor the executor for running the operations,
+     *                 e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * @return the adapted asynchronous vendor license manager.
+     */
+    default AsyncVendorLicenseManager async(final Executor executor) {
+        Objects.requireNonNull(executor);
+        return new AsyncVendorLicenseManager() {
+
+            @Override
+            public VendorLicenseManager sync() {
+                return VendorLicenseManager.this;
+            }
+
+            @Override
+            public Executor executor() {
+                return executor;
+            }
+        };
+    }
+
     /**
      * Adapts this vendor license manager so that it generally throws an {@link UncheckedLicenseManagementException}
      * instead of a (checked) {@link LicenseManagementException} if an operation fails.
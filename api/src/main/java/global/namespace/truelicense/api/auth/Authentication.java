@@ -7,7 +7,7 @@ package global.namespace.truelicense.api.auth;
 import global.namespace.fun.io.api.Decoder;
 
 /** Provides authentication services. */
-public interface Authentication {
+public interface Authentication extends AutoCloseable {
 
     /**
      * Encodes and signs the given {@code artifact} and returns a decoder for it.
@@ -30,4 +30,12 @@ public interface Authentication {
      *         compromised.
      */
     Decoder verify(RepositoryController controller) throws Exception;
+
+    /**
+     * Destroys any cached key material.
+     * The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
 }
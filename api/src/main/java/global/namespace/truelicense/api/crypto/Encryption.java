@@ -7,5 +7,13 @@ package global.namespace.truelicense.api.crypto;
 import global.namespace.fun.io.api.Filter;
 
 /** Provides encryption services. */
-public interface Encryption extends Filter {
+public interface Encryption extends Filter, AutoCloseable {
+
+    /**
+     * Destroys any cached key material.
+     * The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
 }
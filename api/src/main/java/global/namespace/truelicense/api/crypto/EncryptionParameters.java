@@ -22,4 +22,16 @@ public interface EncryptionParameters {
 
     /** Returns a password protection for generating the secret key for encryption/decryption. */
     PasswordProtection protection();
+
+    /**
+     * Returns {@code true} if the encryption should cache the secret keys which it derives from the password, salt
+     * and iteration count.
+     * This is only safe if the {@linkplain #protection() password protection} always returns the same password.
+     * The cached keys get destroyed when the encryption gets {@linkplain Encryption#close() closed}, e.g. by
+     * {@linkplain global.namespace.truelicense.api.LicenseManagerMixin#close() closing} a license manager which uses it.
+     * The default implementation returns {@code false}.
+     */
+    default boolean keyCaching() {
+        return false;
+    }
 }
@@ -39,16 +39,21 @@ interface ApiDemo {
         return licenseManagementContextBuilder()
                 .authenticationFactory(mock(AuthenticationFactory.class))
                 .authorization(mock(LicenseManagementAuthorization.class))
+                .cacheInvalidation(LicenseCacheInvalidation.metadata)
                 .cachePeriodMillis(1000L)
+                .cacheRefreshAheadMillis(100L)
                 .codecFactory(mock(CodecFactory.class))
                 .clock(mock(Clock.class))
                 .compression(mock(Filter.class))
                 .encryptionAlgorithm("PBEWithSHA1AndDESede")
                 .encryptionFactory(mock(EncryptionFactory.class))
+                .encryptionKeyCaching(true)
+                .expiryWarningMillis(7L * 24 * 60 * 60 * 1000)
                 .initialization(mock(LicenseInitialization.class))
                 .initializationComposition(LicenseFunctionComposition.decorate)
                 .keystoreType("JCEKS")
                 .licenseFactory(mock(LicenseFactory.class))
+                .maxKeySize(1024 * 1024)
                 .passwordPolicy(mock(PasswordPolicy.class))
                 .repositoryFactory(mock(RepositoryFactory.class))
                 .subject("MyProduct 1")
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.benchmarks;
+
+import global.namespace.fun.io.api.Source;
+import global.namespace.truelicense.api.License;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the consumer license management pipeline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+public class ConsumerBenchmark {
+
+    private static final int BULK_SIZE = 100;
+
+    /** Verifies the installed license key with a populated cache. */
+    @Benchmark
+    public void verifyHit(LicenseManagementState state) throws Exception {
+        state.cachingConsumerManager.verify();
+    }
+
+    /** Verifies the installed license key without a cache. */
+    @Benchmark
+    public void verifyMiss(LicenseManagementState state) throws Exception {
+        state.nonCachingConsumerManager.verify();
+    }
+
+    /** Verifies many license keys concurrently using the common fork-join pool, reporting the time per key. */
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public void verifyKeys(LicenseManagementState state) throws Exception {
+        final List<Source> sources = Collections.nCopies(BULK_SIZE, state.licenseKey);
+        for (final CompletableFuture<License> future
+                : state.nonCachingConsumerManager.verifyKeys(sources, ForkJoinPool.commonPool())) {
+            future.join();
+        }
+    }
+
+    /** Loads the installed license key without a cache. */
+    @Benchmark
+    public License load(LicenseManagementState state) throws Exception {
+        return state.nonCachingConsumerManager.load();
+    }
+
+    /** Installs the license key without a cache. */
+    @Benchmark
+    public void install(LicenseManagementState state) throws Exception {
+        state.nonCachingConsumerManager.install(state.licenseKey);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.benchmarks;
+
+import global.namespace.fun.io.api.Filter;
+import global.namespace.truelicense.api.LicenseManagementContextBuilder;
+import global.namespace.truelicense.v4.V4;
+import global.namespace.truelicense.v5.V5;
+
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+
+import static global.namespace.fun.io.bios.BIOS.deflate;
+import static global.namespace.fun.io.bios.BIOS.gzip;
+
+/**
+ * Enumerates the license key formats to benchmark.
+ */
+@SuppressWarnings("deprecation")
+public enum LicenseFormat {
+
+    v1(global.namespace.truelicense.v1.V1::builder, gzip(), "v1/", ".jks"),
+
+    v2json(global.namespace.truelicense.v2.json.V2Json::builder, deflate(Deflater.BEST_COMPRESSION), "v2/", ".jceks"),
+
+    v2xml(global.namespace.truelicense.v2.xml.V2Xml::builder, deflate(Deflater.BEST_COMPRESSION), "v2/", ".jceks"),
+
+    v4(V4::builder, deflate(Deflater.BEST_COMPRESSION), "v4/", ".pkcs12"),
+
+    v5(V5::builder, deflate(Deflater.BEST_COMPRESSION), "v4/", ".pkcs12");
+
+    private final Supplier<LicenseManagementContextBuilder> builder;
+    private final Filter compression;
+    private final String prefix, postfix;
+
+    LicenseFormat(
+            final Supplier<LicenseManagementContextBuilder> builder,
+            final Filter compression,
+            final String prefix,
+            final String postfix
+    ) {
+        this.builder = builder;
+        this.compression = compression;
+        this.prefix = LicenseFormat.class.getPackage().getName().replace('.', '/') + '/' + prefix;
+        this.postfix = postfix;
+    }
+
+    /** Returns a new license management context builder for this format. */
+    LicenseManagementContextBuilder builder() { return builder.get(); }
+
+    /**
+     * Returns the compression filter for this format.
+     * This must match the compression which gets configured by the {@linkplain #builder() builder}.
+     */
+    Filter compression() { return compression; }
+
+    /** Returns the name of the resource with the key store for the given (base) name. */
+    String keyStore(String name) { return prefix + name + postfix; }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.benchmarks;
+
+import global.namespace.fun.io.api.Store;
+import global.namespace.truelicense.api.ConsumerLicenseManager;
+import global.namespace.truelicense.api.License;
+import global.namespace.truelicense.api.LicenseManagementContext;
+import global.namespace.truelicense.api.VendorLicenseManager;
+import global.namespace.truelicense.api.passwd.PasswordProtection;
+import global.namespace.truelicense.core.passwd.ObfuscatedPasswordProtection;
+import global.namespace.truelicense.obfuscate.ObfuscatedString;
+import org.openjdk.jmh.annotations.*;
+
+import javax.security.auth.x500.X500Principal;
+import java.util.Date;
+
+import static global.namespace.fun.io.bios.BIOS.memory;
+
+/**
+ * Provides a vendor license manager and two consumer license managers for the benchmarked license key format.
+ * The caching consumer license manager has a license key installed and verified, so that its cache is populated.
+ * The non-caching consumer license manager has the same license key installed, but its cache period is zero, so that it
+ * needs to decode the license key again for each operation.
+ */
+@State(Scope.Benchmark)
+public class LicenseManagementState {
+
+    private static final PasswordProtection test1234 =
+            new ObfuscatedPasswordProtection(new ObfuscatedString(new long[]{0x545a955d0e30826cL, 0x3453ccaa499e6baeL})); /* => "test1234" */
+
+    private static final X500Principal me = new X500Principal("CN=Christian Schlichtherle");
+
+    @Param({"v1", "v2json", "v2xml", "v4", "v5"})
+    public LicenseFormat format;
+
+    LicenseManagementContext context;
+    VendorLicenseManager vendorManager;
+    ConsumerLicenseManager cachingConsumerManager, nonCachingConsumerManager;
+    Store licenseKey;
+
+    @Setup
+    public void setup() throws Exception {
+        context = context(Long.MAX_VALUE);
+        vendorManager = context.vendor()
+                .encryption().protection(test1234).up()
+                .authentication()
+                    .alias("mykey")
+                    .loadFromResource(format.keyStore("private"))
+                    .storeProtection(test1234)
+                    .up()
+                .build();
+        licenseKey = memory();
+        vendorManager.generateKeyFrom(license()).saveTo(licenseKey);
+        cachingConsumerManager = consumerManager(context);
+        cachingConsumerManager.install(licenseKey);
+        cachingConsumerManager.verify();
+        nonCachingConsumerManager = consumerManager(context(0));
+        nonCachingConsumerManager.install(licenseKey);
+    }
+
+    private LicenseManagementContext context(long cachePeriodMillis) {
+        return format.builder().cachePeriodMillis(cachePeriodMillis).subject("subject").build();
+    }
+
+    private ConsumerLicenseManager consumerManager(LicenseManagementContext context) {
+        return context.consumer()
+                .encryption().protection(test1234).up()
+                .authentication()
+                    .alias("mykey")
+                    .loadFromResource(format.keyStore("public"))
+                    .storeProtection(test1234)
+                    .up()
+                .storeIn(memory())
+                .build();
+    }
+
+    /** Returns a new license bean for the license key format. */
+    License license() {
+        final License license = context.licenseFactory().license();
+        license.setConsumerAmount(1);
+        license.setConsumerType("User");
+        license.setHolder(me);
+        license.setInfo("Hello, world!");
+        license.setIssued(new Date());
+        license.setIssuer(me);
+        license.setSubject(context.subject());
+        return license;
+    }
+}
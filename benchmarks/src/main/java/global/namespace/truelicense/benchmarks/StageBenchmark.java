@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.benchmarks;
+
+import global.namespace.fun.io.api.Decoder;
+import global.namespace.fun.io.api.Filter;
+import global.namespace.fun.io.api.Store;
+import global.namespace.truelicense.api.License;
+import global.namespace.truelicense.api.auth.Authentication;
+import global.namespace.truelicense.api.auth.RepositoryController;
+import global.namespace.truelicense.api.auth.RepositoryFactory;
+import global.namespace.truelicense.api.codec.Codec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static global.namespace.fun.io.bios.BIOS.memory;
+
+/**
+ * Benchmarks the individual stages of the license management pipelines in isolation, that is, encoding and decoding
+ * the license bean, compressing and decompressing the encoded license bean, encrypting and decrypting the compressed
+ * license bean and signing and verifying the license bean.
+ * The input of each stage is prepared once per trial from the output of the previous stage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class StageBenchmark {
+
+    private License license;
+    private Class<? extends License> licenseClass;
+    private Codec codec;
+    private Filter compression, vendorEncryption, consumerEncryption;
+    private Authentication vendorAuthentication, consumerAuthentication;
+    private RepositoryFactory<?> repositoryFactory;
+    private byte[] encoded, compressed;
+    private Store encodedStore, compressedStore, encryptedStore;
+    private RepositoryController signedController;
+
+    @Setup
+    public void setup(LicenseManagementState state) throws Exception {
+        license = state.license();
+        licenseClass = state.context.licenseFactory().licenseClass();
+        codec = state.context.codec();
+        compression = state.format.compression();
+        vendorEncryption = state.vendorManager.parameters().encryption();
+        consumerEncryption = state.cachingConsumerManager.parameters().encryption();
+        vendorAuthentication = state.vendorManager.parameters().authentication();
+        consumerAuthentication = state.cachingConsumerManager.parameters().authentication();
+        repositoryFactory = state.context.repositoryFactory();
+
+        encodedStore = memory();
+        codec.encoder(encodedStore).encode(license);
+        encoded = encodedStore.content();
+
+        compressedStore = memory();
+        compressedStore.map(compression).content(encoded);
+        compressed = compressedStore.content();
+
+        encryptedStore = memory();
+        encryptedStore.map(vendorEncryption).content(compressed);
+
+        signedController = controller(repositoryFactory, codec);
+        vendorAuthentication.sign(signedController, license);
+    }
+
+    private static <Model> RepositoryController controller(RepositoryFactory<Model> factory, Codec codec) {
+        return factory.controller(codec, factory.model());
+    }
+
+    @Benchmark
+    public Store encode() throws Exception {
+        final Store store = memory();
+        codec.encoder(store).encode(license);
+        return store;
+    }
+
+    @Benchmark
+    public License decode() throws Exception {
+        return codec.decoder(encodedStore).decode(licenseClass);
+    }
+
+    @Benchmark
+    public Store compress() throws Exception {
+        final Store store = memory();
+        store.map(compression).content(encoded);
+        return store;
+    }
+
+    @Benchmark
+    public byte[] decompress() throws Exception {
+        return compressedStore.map(compression).content();
+    }
+
+    @Benchmark
+    public Store encrypt() throws Exception {
+        final Store store = memory();
+        store.map(vendorEncryption).content(compressed);
+        return store;
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws Exception {
+        return encryptedStore.map(consumerEncryption).content();
+    }
+
+    @Benchmark
+    public Decoder sign() throws Exception {
+        return vendorAuthentication.sign(controller(repositoryFactory, codec), license);
+    }
+
+    @Benchmark
+    public Decoder verify() throws Exception {
+        return consumerAuthentication.verify(signedController);
+    }
+}
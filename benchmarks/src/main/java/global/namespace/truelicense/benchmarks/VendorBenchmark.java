@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.benchmarks;
+
+import global.namespace.fun.io.api.Store;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static global.namespace.fun.io.bios.BIOS.memory;
+
+/**
+ * Benchmarks the vendor license management pipeline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+public class VendorBenchmark {
+
+    /** Generates a license key and saves it to a new memory store. */
+    @Benchmark
+    public Store generateKeyFromAndSaveTo(LicenseManagementState state) throws Exception {
+        final Store store = memory();
+        state.vendorManager.generateKeyFrom(state.license()).saveTo(store);
+        return store;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.benchmarks;
+
+import global.namespace.fun.io.api.Codec;
+import global.namespace.fun.io.api.Store;
+import global.namespace.truelicense.api.License;
+import global.namespace.truelicense.api.LicenseManagementContext;
+import global.namespace.truelicense.v2.xml.V2XmlCodecFactory;
+import org.openjdk.jmh.annotations.*;
+
+import javax.security.auth.x500.X500Principal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static global.namespace.fun.io.bios.BIOS.memory;
+import static global.namespace.fun.io.jaxb.JAXB.xml;
+
+/**
+ * Benchmarks concurrently encoding and decoding a license bean with the V2/XML codec, which pools its marshallers and
+ * unmarshallers, against a plain JAXB codec, which creates a new marshaller or unmarshaller for each call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Warmup(iterations = 3, time = 1)
+public class XmlCodecBenchmark {
+
+    @Param({"pooled", "unpooled"})
+    public String variant;
+
+    private Codec codec;
+    private License license;
+    private Class<? extends License> licenseClass;
+    private Store encodedStore;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setup() throws Exception {
+        final LicenseManagementContext context = global.namespace.truelicense.v2.xml.V2Xml.builder().subject("subject").build();
+        codec = "pooled".equals(variant) ? context.codec() : xml(new V2XmlCodecFactory().jaxbContext());
+        licenseClass = context.licenseFactory().licenseClass();
+        license = context.licenseFactory().license();
+        final X500Principal me = new X500Principal("CN=Christian Schlichtherle");
+        license.setConsumerAmount(1);
+        license.setConsumerType("User");
+        license.setHolder(me);
+        license.setInfo("Hello, world!");
+        license.setIssued(new Date());
+        license.setIssuer(me);
+        license.setSubject(context.subject());
+        encodedStore = memory();
+        codec.encoder(encodedStore).encode(license);
+    }
+
+    @Benchmark
+    public Store encode() throws Exception {
+        final Store store = memory();
+        codec.encoder(store).encode(license);
+        return store;
+    }
+
+    @Benchmark
+    public License decode() throws Exception {
+        return codec.decoder(encodedStore).decode(licenseClass);
+    }
+}
@@ -0,0 +1,8 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+/**
+ * Provides the JMH benchmarks for the consumer and vendor license management pipelines and their individual stages.
+ */
+package global.namespace.truelicense.benchmarks;
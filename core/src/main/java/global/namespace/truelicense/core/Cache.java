@@ -4,40 +4,162 @@
  */
 package global.namespace.truelicense.core;
 
+import global.namespace.truelicense.api.LicenseManagementMetrics;
+
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 
 /**
- * A simple time sensitive cache with just one association.
- * This class is immutable.
+ * A time sensitive cache with a bounded number of associations.
+ * Each association expires when the cache period has elapsed since it has been put into the cache.
+ * Optionally, an association can be put with a fingerprint of the state of its key, e.g. the size and last modification
+ * time of a file, so that it gets invalidated as soon as the fingerprint changes.
+ * If the maximum size is exceeded, then the least recently used association gets evicted.
+ * Lookups are lock-free and the cache counts hits, misses and evictions, and reports them to the given metrics, too.
+ * This class is thread-safe.
  */
-@SuppressWarnings("OptionalUsedAsFieldOrParameterType")
 final class Cache<K, V> {
 
-    private final Optional<K> optKey;
-    private final Optional<V> optValue;
-    private final long cachePeriodMillis, startTimeMillis = currentTimeMillis();
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+    private final long cachePeriodMillis;
+    private final int maxSize;
+    private final LicenseManagementMetrics metrics;
 
-    Cache() { this(Optional.empty(), Optional.empty(), 0); } // => obsolete() == true
+    Cache(long cachePeriodMillis, int maxSize) { this(cachePeriodMillis, maxSize, LicenseManagementMetrics.NONE); }
 
-    Cache(final Optional<K> optKey, final Optional<V> optValue, final long cachePeriodMillis) {
-        this.optKey = optKey;
-        this.optValue = optValue;
+    Cache(final long cachePeriodMillis, final int maxSize, final LicenseManagementMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics);
         if (0 > (this.cachePeriodMillis = cachePeriodMillis)) {
             throw new IllegalArgumentException();
         }
+        if (0 >= (this.maxSize = maxSize)) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /** Returns the value associated with the given key unless it's absent or obsolete. */
+    Optional<V> get(K key) { return get(key, null); }
+
+    /**
+     * Returns the value associated with the given key unless it's absent or obsolete or has been put with a
+     * different fingerprint.
+     */
+    Optional<V> get(final K key, final Object fingerprint) {
+        final Entry<V> entry = entries.get(key);
+        if (null == entry) {
+            misses.increment();
+            metrics.cacheMiss();
+            return Optional.empty();
+        } else if (entry.obsolete() || !Objects.equals(entry.fingerprint, fingerprint)) {
+            misses.increment();
+            metrics.cacheMiss();
+            if (evict(key, entry)) {
+                metrics.cacheExpiration();
+            }
+            return Optional.empty();
+        } else {
+            hits.increment();
+            metrics.cacheHit();
+            entry.accessTimeNanos = nanoTime();
+            return Optional.of(entry.value);
+        }
+    }
+
+    /** Associates the given value to the given key, evicting the least recently used association if required. */
+    void put(K key, V value) { put(key, value, null); }
+
+    /**
+     * Associates the given value to the given key with the given fingerprint, evicting the least recently used
+     * association if required.
+     */
+    void put(final K key, final V value, final Object fingerprint) {
+        entries.put(key, new Entry<>(value, fingerprint, currentTimeMillis(), cachePeriodMillis));
+        while (entries.size() > maxSize) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Moves the association of the given key to the other given key and replaces its fingerprint.
+     * If there is no current association of the given key, then any association of the other key gets removed, too.
+     */
+    void move(final K from, final K to, final Object fingerprint) {
+        final Entry<V> entry = from.equals(to) ? entries.get(from) : entries.remove(from);
+        if (null != entry && !entry.obsolete()) {
+            entries.put(to, entry.fingerprint(fingerprint));
+        } else {
+            entries.remove(to);
+        }
+    }
+
+    /** Removes all associations. */
+    void clear() { entries.clear(); }
+
+    /**
+     * Returns the system time in milliseconds when the association of the given key gets obsolete or
+     * {@link Long#MIN_VALUE} if there is no such association.
+     */
+    long deadlineMillis(final K key) {
+        final Entry<V> entry = entries.get(key);
+        return null == entry ? Long.MIN_VALUE : entry.deadlineMillis;
     }
 
-    Cache<K, V> key(Optional<K> optKey) {
-        return hasKey(optKey) ? this : new Cache<>(optKey, optValue, cachePeriodMillis);
+    long hits() { return hits.sum(); }
+
+    long misses() { return misses.sum(); }
+
+    long evictions() { return evictions.sum(); }
+
+    private void evictLeastRecentlyUsed() {
+        Map.Entry<K, Entry<V>> eldest = null;
+        for (final Map.Entry<K, Entry<V>> mapEntry : entries.entrySet()) {
+            if (null == eldest || mapEntry.getValue().accessTimeNanos - eldest.getValue().accessTimeNanos < 0) {
+                eldest = mapEntry;
+            }
+        }
+        if (null != eldest && evict(eldest.getKey(), eldest.getValue())) {
+            metrics.cacheEviction();
+        }
     }
 
-    Optional<V> map(Optional<K> optKey) {
-        return hasKey(optKey) && !obsolete() ? optValue : Optional.empty();
+    private boolean evict(final K key, final Entry<V> entry) {
+        if (entries.remove(key, entry)) {
+            evictions.increment();
+            return true;
+        } else {
+            return false;
+        }
     }
 
-    boolean hasKey(Optional<K> optKey) { return optKey.equals(this.optKey); }
+    private static final class Entry<V> {
 
-    boolean obsolete() { return currentTimeMillis() - startTimeMillis >= cachePeriodMillis; }
+        final V value;
+        final Object fingerprint;
+        final long deadlineMillis;
+        volatile long accessTimeNanos = nanoTime();
+
+        Entry(final V value, final Object fingerprint, final long startTimeMillis, final long cachePeriodMillis) {
+            this.value = value;
+            this.fingerprint = fingerprint;
+            final long deadlineMillis = startTimeMillis + cachePeriodMillis;
+            this.deadlineMillis = deadlineMillis < startTimeMillis ? Long.MAX_VALUE : deadlineMillis;
+        }
+
+        private Entry(final Entry<V> entry, final Object fingerprint) {
+            this.value = entry.value;
+            this.fingerprint = fingerprint;
+            this.deadlineMillis = entry.deadlineMillis;
+        }
+
+        Entry<V> fingerprint(Object fingerprint) { return new Entry<>(this, fingerprint); }
+
+        boolean obsolete() { return currentTimeMillis() >= deadlineMillis; }
+    }
 }
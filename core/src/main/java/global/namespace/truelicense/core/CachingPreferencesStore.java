@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import global.namespace.fun.io.api.ContentTooLargeException;
+import global.namespace.fun.io.api.NoContentException;
+import global.namespace.fun.io.api.Socket;
+import global.namespace.fun.io.api.Store;
+import global.namespace.truelicense.api.LicenseManagementMetrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.prefs.PreferenceChangeEvent;
+import java.util.prefs.PreferenceChangeListener;
+import java.util.prefs.Preferences;
+
+import static global.namespace.fun.io.bios.BIOS.preferences;
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * A store for a license key in a preferences node which caches the content in memory, so that reading it again
+ * doesn't need to access the preferences backend.
+ * The cached content gets invalidated when this store writes or deletes it, when a {@link PreferenceChangeEvent} gets
+ * delivered for its key or when the cache period has elapsed.
+ * The latter bounds the time it takes to notice a change by another process, which the preferences backend doesn't
+ * necessarily report as an event.
+ * Lookups count hits and misses and report them to the given metrics, too.
+ * All stores for the same preferences node share a single listener for these events, so that creating stores over and
+ * over again doesn't pile up listeners on the node.
+ * This class is thread-safe.
+ */
+final class CachingPreferencesStore implements Store {
+
+    // Only weakly references the preferences nodes so that a removed node can
+    // get garbage collected along with its listener.
+    private static final Map<Preferences, Listener> listeners =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Preferences node;
+    private final String key;
+    private final Store store;
+    private final long cachePeriodMillis;
+    private final LicenseManagementMetrics metrics;
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+    // Gets incremented upon each invalidation so that a concurrent read
+    // cannot put content into the cache which is already obsolete.
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Entry entry;
+
+    CachingPreferencesStore(
+            final Preferences node,
+            final String key,
+            final long cachePeriodMillis,
+            final LicenseManagementMetrics metrics
+    ) {
+        this.node = Objects.requireNonNull(node);
+        this.key = Objects.requireNonNull(key);
+        this.store = preferences(node, key);
+        if (0 > (this.cachePeriodMillis = cachePeriodMillis)) {
+            throw new IllegalArgumentException();
+        }
+        this.metrics = Objects.requireNonNull(metrics);
+        listener(node).add(this);
+    }
+
+    static Listener listener(final Preferences node) {
+        return listeners.computeIfAbsent(node, n -> {
+            final Listener listener = new Listener();
+            n.addPreferenceChangeListener(listener);
+            return listener;
+        });
+    }
+
+    @Override
+    public Socket<InputStream> input() {
+        return () -> new ByteArrayInputStream(checkedContent());
+    }
+
+    @Override
+    public Socket<OutputStream> output() {
+        return store.output().map(out -> {
+            invalidate();
+            return new FilterOutputStream(out) {
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        invalidate();
+                    }
+                }
+            };
+        });
+    }
+
+    @Override
+    public void delete() throws IOException {
+        try {
+            store.delete();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public OptionalLong size() {
+        return optContent().map(c -> OptionalLong.of(c.length)).orElseGet(OptionalLong::empty);
+    }
+
+    @Override
+    public byte[] content(final int max) throws IOException {
+        if (max < 0) {
+            throw new IllegalArgumentException(max + " < 0");
+        }
+        final byte[] content = checkedContent();
+        if (content.length > max) {
+            throw new ContentTooLargeException(content.length, max);
+        }
+        return content.clone();
+    }
+
+    @Override
+    public void content(final byte[] b, final int off, final int len) throws IOException {
+        invalidate();
+        try {
+            store.content(b, off, len);
+        } finally {
+            invalidate();
+        }
+    }
+
+    long hits() { return hits.sum(); }
+
+    long misses() { return misses.sum(); }
+
+    void invalidate() { generation.incrementAndGet(); }
+
+    private byte[] checkedContent() throws NoContentException {
+        return optContent().orElseThrow(() -> new NoContentException(String.format(Locale.ENGLISH,
+                "No content for key \"%s\" in %s preferences node \"%s\".",
+                key, node.isUserNode() ? "user" : "system", node.absolutePath())));
+    }
+
+    private Optional<byte[]> optContent() {
+        final Entry entry = this.entry;
+        if (null != entry && entry.generation == generation.get() && currentTimeMillis() < entry.deadlineMillis) {
+            hits.increment();
+            metrics.storeCacheHit();
+            return entry.content;
+        }
+        misses.increment();
+        metrics.storeCacheMiss();
+        final long generation = this.generation.get();
+        final long startTimeMillis = currentTimeMillis();
+        final Optional<byte[]> content = Optional.ofNullable(node.getByteArray(key, null));
+        this.entry = new Entry(content, generation, startTimeMillis, cachePeriodMillis);
+        return content;
+    }
+
+    private static final class Entry {
+
+        final Optional<byte[]> content;
+        final long generation;
+        final long deadlineMillis;
+
+        Entry(
+                final Optional<byte[]> content,
+                final long generation,
+                final long startTimeMillis,
+                final long cachePeriodMillis
+        ) {
+            this.content = content;
+            this.generation = generation;
+            final long deadlineMillis = startTimeMillis + cachePeriodMillis;
+            this.deadlineMillis = deadlineMillis < startTimeMillis ? Long.MAX_VALUE : deadlineMillis;
+        }
+    }
+
+    // Only weakly references the stores and forgets them once they have been
+    // garbage collected, because the preferences node lives on.
+    static final class Listener implements PreferenceChangeListener {
+
+        private final List<WeakReference<CachingPreferencesStore>> references = new CopyOnWriteArrayList<>();
+
+        void add(final CachingPreferencesStore store) {
+            references.removeIf(reference -> null == reference.get());
+            references.add(new WeakReference<>(store));
+        }
+
+        int size() {
+            references.removeIf(reference -> null == reference.get());
+            return references.size();
+        }
+
+        @Override
+        public void preferenceChange(final PreferenceChangeEvent event) {
+            for (final WeakReference<CachingPreferencesStore> reference : references) {
+                final CachingPreferencesStore store = reference.get();
+                if (null == store) {
+                    references.remove(reference);
+                } else if (store.key.equals(event.getKey())) {
+                    store.invalidate();
+                }
+            }
+        }
+    }
+}
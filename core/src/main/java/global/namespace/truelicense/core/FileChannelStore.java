@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import global.namespace.fun.io.api.ContentTooLargeException;
+import global.namespace.fun.io.api.Socket;
+import global.namespace.fun.io.api.Store;
+import global.namespace.fun.io.api.function.XConsumer;
+import global.namespace.fun.io.api.function.XFunction;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+import static java.nio.file.attribute.PosixFilePermissions.asFileAttribute;
+
+/**
+ * A store for a license key in a file which gets read using a {@link FileChannel}.
+ * The file gets read in one go into a single buffer - it gets mapped into memory if it's large or read into a heap
+ * buffer otherwise.
+ * Input streams then serve bulk reads straight from this buffer, so that the filters for decryption and decompression
+ * and the codec don't need to copy the data through yet another buffer.
+ * <p>
+ * The size of the file is checked before reading it and while writing it.
+ * If it exceeds the configured maximum key size, then a {@link ContentTooLargeException} gets thrown, so that an
+ * oversized file gets rejected before it's read into memory.
+ * <p>
+ * The file gets written to a temporary file in the same directory first, which replaces the file only if the function
+ * or consumer passed to the output socket - or any socket mapped from it by a filter - returns normally and closing the
+ * stream succeeds.
+ * So if writing fails, e.g. because the content is too large or a filter or codec throws an exception midway, then the
+ * file is left unchanged.
+ * Symbolic links get followed, so the file they point to gets replaced rather than the link.
+ * If the file already exists, then the temporary file gets created with its POSIX permissions and gets its owner,
+ * group and ACL, as far as the file system supports them.
+ * Note that an output stream obtained from the deprecated {@link Socket#get()} method replaces the file when getting
+ * closed, because there is no other signal for success then.
+ */
+final class FileChannelStore implements Store {
+
+    /**
+     * The minimum size of a file for mapping it into memory instead of reading it into a heap buffer.
+     * For smaller files, setting up the memory mapping costs more than copying the data.
+     * Note that on some platforms, e.g. Windows, a mapped file cannot get deleted until the buffer is garbage
+     * collected, so this threshold should be well above the size of a typical license key.
+     */
+    private static final int MAP_THRESHOLD = 64 * 1024;
+
+    private final Path path;
+    private final int maxSize;
+
+    FileChannelStore(final Path path, final int maxSize) {
+        assert path != null;
+        assert 0 <= maxSize;
+        this.path = path;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public Socket<InputStream> input() {
+        return () -> new ByteBufferInputStream(read(maxSize));
+    }
+
+    @Override
+    public Socket<OutputStream> output() {
+        return new ReplacingSocket<>(out -> out);
+    }
+
+    @Override
+    public void delete() throws IOException {
+        Files.delete(path);
+    }
+
+    @Override
+    public void deleteIfExists() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public OptionalLong size() throws IOException {
+        try {
+            return OptionalLong.of(Files.size(path));
+        } catch (NoSuchFileException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public byte[] content(final int max) throws IOException {
+        if (max < 0) {
+            throw new IllegalArgumentException(max + " < 0");
+        }
+        final ByteBuffer buffer = read(Math.min(max, maxSize));
+        if (buffer.hasArray() && buffer.array().length == buffer.remaining()) {
+            return buffer.array();
+        }
+        final byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        return content;
+    }
+
+    @Override
+    public void content(final byte[] b, final int off, final int len) throws IOException {
+        if (len > maxSize) {
+            throw new ContentTooLargeException(len, maxSize);
+        }
+        final ReplacingOutputStream out = ReplacingOutputStream.open(path, maxSize, false);
+        try {
+            out.write(b, off, len);
+            out.close();
+            out.replace();
+        } catch (IOException | RuntimeException e) {
+            out.discard(e);
+            throw e;
+        }
+    }
+
+    private ByteBuffer read(final int max) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            final long size = channel.size();
+            if (size > max) {
+                throw new ContentTooLargeException(size, max);
+            }
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(READ_ONLY, 0, size);
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+            buffer.mark();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (0 == len) {
+                return 0;
+            }
+            final int remaining = buffer.remaining();
+            if (0 == remaining) {
+                return -1;
+            }
+            final int n = Math.min(len, remaining);
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+            buffer.mark();
+        }
+
+        @Override
+        public void reset() {
+            buffer.reset();
+        }
+    }
+
+    // Replaces the file only if the function or consumer which writes the
+    // content returns normally and closing the stream succeeds, because an
+    // exception thrown by an outer filter or codec never reaches the stream.
+    // Mapping this socket retains this behavior.
+    private final class ReplacingSocket<T extends AutoCloseable> implements Socket<T> {
+
+        private final XFunction<? super ReplacingOutputStream, ? extends T> mapping;
+
+        ReplacingSocket(final XFunction<? super ReplacingOutputStream, ? extends T> mapping) {
+            this.mapping = mapping;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public T get() throws Exception {
+            final ReplacingOutputStream out = ReplacingOutputStream.open(path, maxSize, true);
+            try {
+                return mapping.apply(out);
+            } catch (Exception e) {
+                out.discard(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void accept(final XConsumer<? super T> consumer) throws Exception {
+            apply(t -> {
+                consumer.accept(t);
+                return null;
+            });
+        }
+
+        @Override
+        public <U> U apply(final XFunction<? super T, ? extends U> function) throws Exception {
+            final ReplacingOutputStream out = ReplacingOutputStream.open(path, maxSize, false);
+            try {
+                final U result;
+                try (T t = mapping.apply(out)) {
+                    result = function.apply(t);
+                }
+                out.close();
+                out.replace();
+                return result;
+            } catch (Exception e) {
+                out.discard(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public <U extends AutoCloseable> Socket<U> map(final XFunction<? super T, ? extends U> function) {
+            Objects.requireNonNull(function);
+            return new ReplacingSocket<U>(out -> function.apply(mapping.apply(out)));
+        }
+    }
+
+    // Writes to a temporary file which replaces the target file when calling
+    // replace() or, if requested, when getting closed, unless writing has
+    // failed before.
+    private static final class ReplacingOutputStream extends FilterOutputStream {
+
+        private final Path target, temp;
+        private final int maxSize;
+        private final boolean replaceOnClose;
+        private long size;
+        private boolean failed, closed;
+
+        private ReplacingOutputStream(
+                final Path target,
+                final Path temp,
+                final FileChannel channel,
+                final int maxSize,
+                final boolean replaceOnClose
+        ) {
+            super(Channels.newOutputStream(channel));
+            this.target = target;
+            this.temp = temp;
+            this.maxSize = maxSize;
+            this.replaceOnClose = replaceOnClose;
+        }
+
+        static ReplacingOutputStream open(final Path path, final int maxSize, final boolean replaceOnClose)
+                throws IOException {
+            final Path target = target(path);
+            final Path temp = temp(target);
+            return new ReplacingOutputStream(target, temp, create(target, temp), maxSize, replaceOnClose);
+        }
+
+        private static Path target(final Path path) throws IOException {
+            try {
+                return path.toRealPath();
+            } catch (NoSuchFileException e) {
+                return path.toAbsolutePath();
+            }
+        }
+
+        private static Path temp(final Path target) {
+            return target.resolveSibling(
+                    "." + target.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        }
+
+        // Creates the temporary file with the POSIX permissions of the target
+        // file, so that its content is never more accessible than before, and
+        // copies its owner, group and ACL.
+        private static FileChannel create(final Path target, final Path temp) throws IOException {
+            final PosixFileAttributes posix = posixAttributes(target);
+            final FileChannel channel = null == posix
+                    ? FileChannel.open(temp, CREATE_NEW, WRITE)
+                    : FileChannel.open(temp, EnumSet.of(CREATE_NEW, WRITE), asFileAttribute(posix.permissions()));
+            try {
+                if (null != posix) {
+                    final PosixFileAttributeView view = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+                    view.setPermissions(posix.permissions());
+                    final PosixFileAttributes attributes = view.readAttributes();
+                    if (!posix.owner().equals(attributes.owner())) {
+                        view.setOwner(posix.owner());
+                    }
+                    if (!posix.group().equals(attributes.group())) {
+                        view.setGroup(posix.group());
+                    }
+                }
+                final AclFileAttributeView acl = Files.getFileAttributeView(target, AclFileAttributeView.class);
+                if (null != acl && Files.exists(target)) {
+                    final AclFileAttributeView view = Files.getFileAttributeView(temp, AclFileAttributeView.class);
+                    if (!acl.getOwner().equals(view.getOwner())) {
+                        view.setOwner(acl.getOwner());
+                    }
+                    view.setAcl(acl.getAcl());
+                }
+            } catch (IOException | RuntimeException e) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(temp);
+                } catch (IOException | RuntimeException e2) {
+                    e.addSuppressed(e2);
+                }
+                throw e;
+            }
+            return channel;
+        }
+
+        private static PosixFileAttributes posixAttributes(final Path target) throws IOException {
+            if (null == Files.getFileAttributeView(target, PosixFileAttributeView.class)) {
+                return null;
+            }
+            try {
+                return Files.readAttributes(target, PosixFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            count(1);
+            try {
+                out.write(b);
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            count(len);
+            try {
+                out.write(b, off, len);
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        private void count(final int len) throws ContentTooLargeException {
+            size += len;
+            if (size > maxSize) {
+                failed = true;
+                throw new ContentTooLargeException(size, maxSize);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            } finally {
+                if (failed) {
+                    Files.deleteIfExists(temp);
+                } else if (replaceOnClose) {
+                    replace();
+                }
+            }
+        }
+
+        void replace() throws IOException {
+            try {
+                try {
+                    Files.move(temp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, REPLACE_EXISTING);
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+
+        // Closes this stream without replacing the target file and deletes the
+        // temporary file, adding any exception to the given one.
+        void discard(final Exception e) {
+            failed = true;
+            try {
+                close();
+            } catch (IOException | RuntimeException e2) {
+                e.addSuppressed(e2);
+            }
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException | RuntimeException e2) {
+                e.addSuppressed(e2);
+            }
+        }
+    }
+}
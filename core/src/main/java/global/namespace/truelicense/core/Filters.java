@@ -2,10 +2,12 @@ package global.namespace.truelicense.core;
 
 import global.namespace.fun.io.api.Filter;
 import global.namespace.fun.io.api.Socket;
+import global.namespace.truelicense.api.LicenseManagementMetrics;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static global.namespace.fun.io.bios.BIOS.buffer;
 
@@ -27,9 +29,32 @@ final class Filters {
      * tried to decrypt the data and then decompress it) will be thrown, effectively discarding the exception of the
      * second attempt.
      */
-    static Filter compressionAndEncryption(final Filter compression, final Filter encryption) {
+    static Filter compressionAndEncryption(Filter compression, Filter encryption) {
+        return compressionAndEncryption(compression, encryption, LicenseManagementMetrics.NONE, new AtomicBoolean());
+    }
+
+    /**
+     * Returns a filter like {@link #compressionAndEncryption(Filter, Filter)}, but with the following optimizations:
+     * <ul>
+     * <li>The given flag remembers if the underlying filters had to be swapped when reading data the last time.
+     *     If so, then the filter tries the swapped order first the next time.
+     *     This way, reading the same data again only needs to try both orders if the data has changed.
+     * <li>Before trying the swapped order, the filter checks if the data can get decompressed at all.
+     *     Otherwise, it doesn't try to decrypt the data again, which is the expensive part.
+     *     This way, reading corrupted data doesn't need to try both orders.
+     * </ul>
+     * Any successful attempt to read data with the swapped underlying filters gets recorded using the given metrics.
+     */
+    static Filter compressionAndEncryption(
+            final Filter compression,
+            final Filter encryption,
+            final LicenseManagementMetrics metrics,
+            final AtomicBoolean swapped
+    ) {
         assert compression != null;
         assert encryption != null;
+        assert metrics != null;
+        assert swapped != null;
         return new Filter() {
 
             @Override
@@ -37,27 +62,87 @@ final class Filters {
                 return compression.output(encryption.output(output));
             }
 
-            @SuppressWarnings({"deprecation", "ResultOfMethodCallIgnored"})
             @Override
-            public Socket<InputStream> input(Socket<InputStream> input) {
+            public Socket<InputStream> input(final Socket<InputStream> input) {
                 return () -> {
-                    try {
-                        // Use a buffer filter and do a simple one byte read-ahead test:
-                        return buffer().input(compression.input(encryption.input(input))).map(in -> {
-                            in.mark(1);
-                            in.read();
-                            in.reset();
+                    if (swapped.get()) {
+                        try {
+                            final InputStream in = readAhead(encryption.input(compression.input(input)));
+                            metrics.filterOrderFallback();
+                            return in;
+                        } catch (final IOException e) {
+                            final InputStream in;
+                            try {
+                                in = readAhead(compression.input(encryption.input(input)));
+                            } catch (IOException e2) {
+                                e2.addSuppressed(e);
+                                throw e2;
+                            }
+                            swapped.set(false);
                             return in;
-                        }).get();
-                    } catch (final IOException e) {
+                        }
+                    } else {
                         try {
-                            return encryption.input(compression.input(input)).get();
-                        } catch (IOException ignored) {
-                            throw e;
+                            return readAhead(compression.input(encryption.input(input)));
+                        } catch (final IOException e) {
+                            if (!decompressible(compression.input(input))) {
+                                throw e;
+                            }
+                            try {
+                                final InputStream in = readAhead(encryption.input(compression.input(input)));
+                                swapped.set(true);
+                                metrics.filterOrderFallback();
+                                return in;
+                            } catch (IOException ignored) {
+                                throw e;
+                            }
                         }
                     }
                 };
             }
         };
     }
+
+    /**
+     * Returns a filter which, upon writing, first encrypts the data and then compresses it using the given filters.
+     * Upon reading, the filter first decompresses the data and then decrypts it.
+     * This is the order which has been accidentally used by TrueLicense 4.0.0 and 4.0.1.
+     */
+    static Filter swappedCompressionAndEncryption(final Filter compression, final Filter encryption) {
+        assert compression != null;
+        assert encryption != null;
+        return new Filter() {
+
+            @Override
+            public Socket<OutputStream> output(Socket<OutputStream> output) {
+                return encryption.output(compression.output(output));
+            }
+
+            @Override
+            public Socket<InputStream> input(Socket<InputStream> input) {
+                return encryption.input(compression.input(input));
+            }
+        };
+    }
+
+    // Uses a buffer filter and does a simple one byte read-ahead test.
+    @SuppressWarnings({"deprecation", "ResultOfMethodCallIgnored"})
+    private static InputStream readAhead(Socket<InputStream> input) throws Exception {
+        return buffer().input(input).map(in -> {
+            in.mark(1);
+            in.read();
+            in.reset();
+            return in;
+        }).get();
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private static boolean decompressible(final Socket<InputStream> input) {
+        try {
+            input.accept(InputStream::read);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import global.namespace.fun.io.api.Source;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Provides fingerprints of the state of a source in order to detect external changes to it.
+ * Fingerprints need to be compared using {@link Object#equals(Object)}.
+ * If a fingerprint cannot be computed, e.g. because the source does not exist, then a new object gets returned which
+ * is not equal to any other fingerprint, so that any cached intermediate results get invalidated.
+ */
+final class Fingerprints {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Returns a fingerprint of the size, last modification time and file key of the file at the given path.
+     * This requires accessing the file attributes only, not the file content.
+     */
+    static Object metadata(final Path path) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return Arrays.asList(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+        } catch (Exception e) {
+            return new Object();
+        }
+    }
+
+    /** Returns a fingerprint of the content of the given source. */
+    static Object content(final Source source) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            source.acceptReader(in -> {
+                final byte[] buffer = new byte[8 * 1024];
+                for (int read; 0 <= (read = in.read(buffer)); ) {
+                    digest.update(buffer, 0, read);
+                }
+            });
+            return ByteBuffer.wrap(digest.digest());
+        } catch (Exception e) {
+            return new Object();
+        }
+    }
+}
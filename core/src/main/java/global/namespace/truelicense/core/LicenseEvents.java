@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import global.namespace.truelicense.api.ConsumerLicenseManager;
+import global.namespace.truelicense.api.LicenseEvent;
+import global.namespace.truelicense.api.LicenseEventType;
+import global.namespace.truelicense.api.LicenseListener;
+import global.namespace.truelicense.api.LicenseSnapshot;
+
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes the life cycle events of the license key in the store of a consumer license manager to its listeners.
+ * The license manager reports the license whenever it installs, uninstalls or decodes the license key in the store.
+ * In between, a single timer gets scheduled for the next instant when the validity of the license changes, i.e. the
+ * start of its validity period, the start of the expiry warning period or the end of its validity period.
+ * The timer only weakly references this object and only gets scheduled while there are any listeners.
+ * Listeners get called without holding any lock and any runtime exception which they throw gets ignored.
+ * This class is thread-safe.
+ */
+@SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+final class LicenseEvents {
+
+    private final ConsumerLicenseManager manager;
+    private final Clock clock;
+    private final long warningMillis;
+    private final List<LicenseListener> listeners = new CopyOnWriteArrayList<>();
+    private final Lock lock = new ReentrantLock();
+
+    // These fields are guarded by the lock.
+    private Optional<LicenseSnapshot> license = Optional.empty();
+    private Phase phase = Phase.none;
+    private Optional<ScheduledFuture<?>> timer = Optional.empty();
+
+    LicenseEvents(final ConsumerLicenseManager manager, final Clock clock, final long warningMillis) {
+        this.manager = Objects.requireNonNull(manager);
+        this.clock = Objects.requireNonNull(clock);
+        if (0 > (this.warningMillis = warningMillis)) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    void add(final LicenseListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+        lock.lock();
+        try {
+            if (!timer.isPresent()) {
+                schedule();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void remove(LicenseListener listener) { listeners.remove(listener); }
+
+    boolean hasListeners() { return !listeners.isEmpty(); }
+
+    /**
+     * Reports the license in the store.
+     * If it's different from the last reported license, then an {@link LicenseEventType#installed} event gets
+     * published, followed by an event for the current phase of its validity, if any.
+     */
+    void seen(final LicenseSnapshot license) {
+        final List<LicenseEvent> events = new ArrayList<>(2);
+        lock.lock();
+        try {
+            if (this.license.isPresent() && this.license.get().equals(license)) {
+                return;
+            }
+            this.license = Optional.of(license);
+            this.phase = Phase.at(license, clock.millis(), warningMillis);
+            events.add(event(LicenseEventType.installed));
+            phase.type.ifPresent(type -> events.add(event(type)));
+            cancel();
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+        events.forEach(this::publish);
+    }
+
+    /** Reports the uninstallation of the license key and publishes an {@link LicenseEventType#uninstalled} event. */
+    void uninstalled() {
+        lock.lock();
+        try {
+            license = Optional.empty();
+            phase = Phase.none;
+            cancel();
+        } finally {
+            lock.unlock();
+        }
+        publish(event(LicenseEventType.uninstalled));
+    }
+
+    private void tick() {
+        final Optional<LicenseEvent> event;
+        lock.lock();
+        try {
+            timer = Optional.empty();
+            if (!license.isPresent()) {
+                return;
+            }
+            final Phase next = Phase.at(license.get(), clock.millis(), warningMillis);
+            event = next != phase ? next.type.map(this::event) : Optional.empty();
+            phase = next;
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+        event.ifPresent(this::publish);
+    }
+
+    // Must be called with the lock held.
+    private void schedule() {
+        if (!license.isPresent() || listeners.isEmpty()) {
+            return;
+        }
+        final LicenseSnapshot license = this.license.get();
+        final long nowMillis = clock.millis();
+        final long delayMillis;
+        if (Phase.at(license, nowMillis, warningMillis) != phase) {
+            // The phase has changed while there were no listeners.
+            delayMillis = 0;
+        } else {
+            final long nextMillis = next(license, nowMillis, warningMillis);
+            if (Long.MAX_VALUE == nextMillis) {
+                return;
+            }
+            delayMillis = nextMillis - nowMillis;
+        }
+        final WeakReference<LicenseEvents> reference = new WeakReference<>(this);
+        timer = Optional.of(Scheduler.schedule(() -> {
+            final LicenseEvents events = reference.get();
+            if (null != events) {
+                events.tick();
+            }
+        }, delayMillis));
+    }
+
+    // Must be called with the lock held.
+    private void cancel() {
+        timer.ifPresent(future -> future.cancel(false));
+        timer = Optional.empty();
+    }
+
+    private LicenseEvent event(LicenseEventType type) { return new LicenseEvent(manager, type, license); }
+
+    private void publish(final LicenseEvent event) {
+        for (final LicenseListener listener : listeners) {
+            try {
+                listener.licenseChanged(event);
+            } catch (RuntimeException ignored) {
+                // A faulty listener must not affect the license manager or the other listeners.
+            }
+        }
+    }
+
+    /**
+     * Returns the next instant after the given time in milliseconds when the phase of the given license may change,
+     * or {@link Long#MAX_VALUE} if there is none.
+     */
+    static long next(final LicenseSnapshot license, final long nowMillis, final long warningMillis) {
+        long next = Long.MAX_VALUE;
+        final long notBeforeMillis = license.notBeforeMillis();
+        if (nowMillis < notBeforeMillis) {
+            next = notBeforeMillis;
+        }
+        final long notAfterMillis = license.notAfterMillis();
+        if (Long.MAX_VALUE != notAfterMillis) {
+            final long warningStartMillis = notAfterMillis - warningMillis;
+            if (0 < warningMillis && warningStartMillis < notAfterMillis && nowMillis < warningStartMillis) {
+                next = Math.min(next, warningStartMillis);
+            }
+            // The license is valid as long as `now <= notAfterMillis`, so it expires in the next millisecond:
+            if (nowMillis <= notAfterMillis) {
+                next = Math.min(next, notAfterMillis + 1);
+            }
+        }
+        return next;
+    }
+
+    enum Phase {
+
+        none(Optional.empty()),
+        notYetValid(Optional.empty()),
+        valid(Optional.of(LicenseEventType.becameValid)),
+        expiringSoon(Optional.of(LicenseEventType.expiringSoon)),
+        expired(Optional.of(LicenseEventType.expired));
+
+        final Optional<LicenseEventType> type;
+
+        Phase(final Optional<LicenseEventType> type) { this.type = type; }
+
+        static Phase at(final LicenseSnapshot license, final long nowMillis, final long warningMillis) {
+            final long notAfterMillis = license.notAfterMillis();
+            if (nowMillis > notAfterMillis) {
+                return expired;
+            } else if (nowMillis < license.notBeforeMillis()) {
+                return notYetValid;
+            } else if (0 < warningMillis && Long.MAX_VALUE != notAfterMillis
+                    && notAfterMillis - warningMillis < notAfterMillis && nowMillis >= notAfterMillis - warningMillis) {
+                return expiringSoon;
+            } else {
+                return valid;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import global.namespace.truelicense.api.ConsumerLicenseManager;
+import global.namespace.truelicense.api.LicenseManagementException;
+import global.namespace.truelicense.api.LicenseManagerParameters;
+
+/**
+ * This facade provides a static utility method for migrating license keys which have been generated by TrueLicense
+ * 4.0.0 or 4.0.1.
+ * These versions accidentally encrypted the license key before compressing it instead of vice versa.
+ * Consumer license managers can still install, load and verify such license keys, but this requires them to try
+ * both orders when decoding a license key for the first time.
+ * Migrating the installed license key once avoids this cost for good.
+ */
+public final class LicenseKeyMigration {
+
+    /**
+     * Re-encodes the license key in the store of the given consumer license manager if it has been generated by
+     * TrueLicense 4.0.0 or 4.0.1.
+     * The encoded license bean and its digital signature are not modified by the migration, so there is no need to
+     * generate a new license key.
+     * The migration is idempotent, so it's safe to call this method once upon each start of an application.
+     *
+     * @param manager the consumer license manager, which must have been created by the TrueLicense Core.
+     * @return {@code true} if and only if the installed license key has been migrated.
+     * @throws IllegalArgumentException if the consumer license manager has not been created by the TrueLicense Core.
+     */
+    public static boolean migrate(final ConsumerLicenseManager manager) throws LicenseManagementException {
+        final LicenseManagerParameters parameters = manager.parameters();
+        if (!(parameters instanceof TrueLicenseManagementContext.TrueLicenseManagerParameters)) {
+            throw new IllegalArgumentException();
+        }
+        try {
+            return ((TrueLicenseManagementContext.TrueLicenseManagerParameters) parameters).migrate();
+        } catch (RuntimeException | LicenseManagementException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new LicenseManagementException(e);
+        }
+    }
+
+    private LicenseKeyMigration() { }
+}
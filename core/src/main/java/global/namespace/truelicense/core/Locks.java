@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Provides striped reentrant locks for guarding objects like stores.
+ * Unlike intrinsic locks, these locks don't pin the carrier thread of a virtual thread which blocks on I/O while
+ * holding them.
+ * A lock gets selected by the identity of the guarded object, so different license managers which use the same store
+ * also use the same lock.
+ * Unrelated objects may share a lock, too, so code which holds a lock must not wait for another thread to acquire a
+ * lock.
+ */
+final class Locks {
+
+    private static final int STRIPES = 64; // must be a power of two
+
+    private static final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /** Returns the lock for guarding the given object. */
+    static Lock lock(Object object) { return stripe(object); }
+
+    /** Returns {@code true} if and only if the current thread holds the lock for guarding the given object. */
+    static boolean heldByCurrentThread(Object object) { return stripe(object).isHeldByCurrentThread(); }
+
+    private static ReentrantLock stripe(final Object object) {
+        final int h = System.identityHashCode(object);
+        return locks[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private Locks() { }
+}
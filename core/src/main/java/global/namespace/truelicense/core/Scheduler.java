@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Schedules background tasks, e.g. refreshing cached intermediate results ahead of their expiration.
+ * All tasks share a single daemon thread which gets lazily started when the first task is scheduled, so it doesn't
+ * prevent the JVM from exiting.
+ */
+final class Scheduler {
+
+    /** Returns a future for the given task which gets run once after the given delay in milliseconds. */
+    static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return Lazy.executor.schedule(task, delayMillis, MILLISECONDS);
+    }
+
+    private static final class Lazy {
+
+        static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+            final Thread thread = new Thread(task, "TrueLicense Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            executor.setRemoveOnCancelPolicy(true);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations for the same key into a single computation in flight.
+ * The first caller computes the outcome while any concurrent callers for the same key wait for it and share it,
+ * including any exception.
+ * Unlike a cache, the outcome gets forgotten as soon as the computation completes, so the next caller computes it
+ * again.
+ * This class is thread-safe.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the outcome of the given computation or of the computation which is already in flight for the given
+     * key.
+     * The computation must not recursively call this method with the same key.
+     */
+    V call(final K key, final Callable<? extends V> computation) throws Exception {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> flight = flights.putIfAbsent(key, future);
+        if (null != flight) {
+            return await(flight);
+        }
+        try {
+            final V value = computation.call();
+            future.complete(value);
+            return value;
+        } catch (final Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            flights.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns a future for the outcome of the given asynchronous computation or of the computation which is already in
+     * flight for the given key.
+     * Each caller gets its own dependent future, so completing or cancelling it doesn't affect the other callers.
+     */
+    CompletableFuture<V> callAsync(final K key, final Supplier<? extends CompletableFuture<? extends V>> computation) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> flight = flights.putIfAbsent(key, future);
+        if (null != flight) {
+            return flight.thenApply(Function.identity());
+        }
+        try {
+            computation.get().whenComplete((value, t) -> {
+                flights.remove(key, future);
+                if (null != t) {
+                    future.completeExceptionally(t);
+                } else {
+                    future.complete(value);
+                }
+            });
+        } catch (final Throwable t) {
+            flights.remove(key, future);
+            future.completeExceptionally(t);
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    private static <V> V await(final CompletableFuture<V> flight) throws Exception {
+        try {
+            return flight.join();
+        } catch (final CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw e;
+            }
+        }
+    }
+}
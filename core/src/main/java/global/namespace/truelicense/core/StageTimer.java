@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import global.namespace.fun.io.api.Filter;
+import global.namespace.fun.io.api.Socket;
+import global.namespace.truelicense.api.LicenseManagementMetrics;
+import global.namespace.truelicense.api.LicenseManagementStage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Measures the time spent in nested stages of decoding a license key.
+ * The time of each stage excludes the time of any nested stage, e.g. when reading from a decompressing input stream
+ * which reads from a decrypting input stream, then the time spent in the decrypting input stream is only accounted to
+ * the decryption stage.
+ * This class is not thread-safe.
+ */
+final class StageTimer {
+
+    private static final LicenseManagementStage[] STAGES = LicenseManagementStage.values();
+
+    private final long[] nanos = new long[STAGES.length];
+    private final Deque<LicenseManagementStage> stages = new ArrayDeque<>();
+    private long markNanos;
+
+    /** Starts a new timer for the given outermost stage. */
+    StageTimer(final LicenseManagementStage stage) {
+        stages.push(stage);
+        markNanos = nanoTime();
+    }
+
+    /**
+     * Calls the given task and records the time spent in it as the given stage using the given metrics.
+     * If the given metrics are {@link LicenseManagementMetrics#NONE}, then the task is just called.
+     */
+    static <V> V time(
+            final LicenseManagementMetrics metrics,
+            final LicenseManagementStage stage,
+            final Callable<V> task
+    ) throws Exception {
+        if (LicenseManagementMetrics.NONE == metrics) {
+            return task.call();
+        }
+        final long startNanos = nanoTime();
+        try {
+            return task.call();
+        } finally {
+            metrics.timing(stage, nanoTime() - startNanos);
+        }
+    }
+
+    /** Returns a filter which accounts the time spent in reading data with the given filter to the given stage. */
+    Filter filter(final LicenseManagementStage stage, final Filter filter) {
+        return new Filter() {
+
+            @Override
+            public Socket<OutputStream> output(Socket<OutputStream> output) {
+                return filter.output(output);
+            }
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public Socket<InputStream> input(final Socket<InputStream> input) {
+                // Opening the filtered input stream, e.g. reading a header, is accounted to the stage, too:
+                final Socket<InputStream> socket = filter.input(input.map(in -> {
+                    enter(stage);
+                    return in;
+                }));
+                return () -> {
+                    final int depth = stages.size();
+                    final InputStream in;
+                    try {
+                        in = socket.get();
+                    } catch (Exception e) {
+                        // Leave the stage if the filter has entered it before failing:
+                        unwind(depth);
+                        throw e;
+                    }
+                    exit();
+                    return new TimedInputStream(in, stage);
+                };
+            }
+        };
+    }
+
+    /** Stops this timer and records the time spent in each stage using the given metrics. */
+    void stop(final LicenseManagementMetrics metrics) {
+        lap();
+        for (final LicenseManagementStage stage : STAGES) {
+            final long n = nanos[stage.ordinal()];
+            if (0 != n) {
+                metrics.timing(stage, n);
+            }
+        }
+    }
+
+    private void enter(final LicenseManagementStage stage) {
+        lap();
+        stages.push(stage);
+    }
+
+    private void exit() {
+        lap();
+        stages.pop();
+    }
+
+    private void unwind(final int depth) {
+        while (stages.size() > depth) {
+            exit();
+        }
+    }
+
+    private void lap() {
+        final long nowNanos = nanoTime();
+        nanos[stages.element().ordinal()] += nowNanos - markNanos;
+        markNanos = nowNanos;
+    }
+
+    private final class TimedInputStream extends FilterInputStream {
+
+        final LicenseManagementStage stage;
+
+        TimedInputStream(final InputStream in, final LicenseManagementStage stage) {
+            super(in);
+            this.stage = stage;
+        }
+
+        @Override
+        public int read() throws IOException {
+            enter(stage);
+            try {
+                return in.read();
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            enter(stage);
+            try {
+                return in.read(b, off, len);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            enter(stage);
+            try {
+                return in.skip(n);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            enter(stage);
+            try {
+                in.close();
+            } finally {
+                exit();
+            }
+        }
+    }
+}
@@ -21,57 +21,95 @@ import global.namespace.truelicense.core.misc.Strings;
 import global.namespace.truelicense.obfuscate.Obfuscate;
 
 import javax.security.auth.x500.X500Principal;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.file.Path;
 import java.time.Clock;
-import java.util.Calendar;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.prefs.Preferences;
 
 import static global.namespace.fun.io.bios.BIOS.*;
 import static global.namespace.truelicense.core.Messages.message;
-import static java.util.Calendar.DATE;
-import static java.util.Calendar.getInstance;
+import static java.lang.System.currentTimeMillis;
 
 @SuppressWarnings({"OptionalUsedAsFieldOrParameterType", "unchecked", "OptionalGetWithoutIsPresent"})
 final class TrueLicenseManagementContext implements LicenseManagementContext, AuthenticationFactory, EncryptionFactory {
 
+    /**
+     * The maximum number of sources for which a caching license manager caches decoders and licenses.
+     */
+    private static final int CACHE_SIZE = 8;
+
     private final AuthenticationFactory authenticationFactory;
     private final LicenseManagementAuthorization authorization;
+    private final LicenseCacheInvalidation cacheInvalidation;
     private final long cachePeriodMillis;
+    private final long cacheRefreshAheadMillis;
     private final Clock clock;
     private final Codec codec;
     private final Filter compression;
     private final String encryptionAlgorithm;
     private final EncryptionFactory encryptionFactory;
+    private final boolean encryptionKeyCaching;
+    private final long expiryWarningMillis;
     private final LicenseFactory licenseFactory;
-    private final Optional<LicenseInitialization> initialization;
-    private final LicenseFunctionComposition initializationComposition;
+    private final LicenseInitialization initialization;
+    private final int maxKeySize;
+    private final LicenseManagementMetrics metrics;
     private final PasswordPolicy passwordPolicy;
     private final RepositoryFactory<?> repositoryFactory;
     private final String keystoreType;
     private final String subject;
-    private final Optional<LicenseValidation> validation;
-    private final LicenseFunctionComposition validationComposition;
+    private final LicenseValidation validation;
+    private final boolean timeIndependentValidation;
 
     TrueLicenseManagementContext(final TrueLicenseManagementContextBuilder b) {
         this.authenticationFactory = b.authenticationFactory;
         this.authorization = b.authorization;
+        this.cacheInvalidation = b.cacheInvalidation;
         this.cachePeriodMillis = b.cachePeriodMillis;
+        this.cacheRefreshAheadMillis = b.cacheRefreshAheadMillis;
         this.clock = b.clock;
         this.codec = b.codecFactory.get().codec();
         this.compression = b.compression.get();
         this.encryptionAlgorithm = Strings.requireNonEmpty(b.encryptionAlgorithm);
         this.encryptionFactory = b.encryptionFactory.get();
+        this.encryptionKeyCaching = b.encryptionKeyCaching;
+        this.expiryWarningMillis = b.expiryWarningMillis;
         this.licenseFactory = b.licenseFactory.get();
-        this.initialization = b.initialization;
-        this.initializationComposition = b.initializationComposition;
+        // The composed license initialization and validation are stateless,
+        // so they get composed only once for all license managers and calls.
+        final LicenseInitialization initialization = new TrueLicenseInitialization();
+        this.initialization = b.initialization
+                .map(first -> b.initializationComposition.compose(first, initialization))
+                .orElse(initialization);
+        this.maxKeySize = b.maxKeySize;
+        this.metrics = b.metrics;
         this.passwordPolicy = b.passwordPolicy;
         this.repositoryFactory = b.repositoryFactory.get();
         this.keystoreType = Strings.requireNonEmpty(b.keystoreType);
         this.subject = Strings.requireNonEmpty(b.subject);
-        this.validation = b.validation;
-        this.validationComposition = b.validationComposition;
+        final LicenseValidation validation = new TrueLicenseValidation();
+        this.validation = b.validation
+                .map(first -> b.validationComposition.compose(first, validation))
+                .orElse(validation);
+        this.timeIndependentValidation = b.validation.map(LicenseValidation::timeIndependent).orElse(true);
     }
 
     private static <V> V callChecked(final Callable<V> task) throws LicenseManagementException {
@@ -93,10 +131,22 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         return authorization;
     }
 
+    private LicenseCacheInvalidation cacheInvalidation() {
+        return cacheInvalidation;
+    }
+
     private long cachePeriodMillis() {
         return cachePeriodMillis;
     }
 
+    private long cacheRefreshAheadMillis() {
+        return cacheRefreshAheadMillis;
+    }
+
+    private Clock clock() {
+        return clock;
+    }
+
     @Override
     public Codec codec() {
         return codec;
@@ -120,11 +170,12 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         return encryptionFactory.encryption(encryptionParameters);
     }
 
+    private long expiryWarningMillis() {
+        return expiryWarningMillis;
+    }
+
     private LicenseInitialization initialization() {
-        final LicenseInitialization second = new TrueLicenseInitialization();
-        return initialization
-                .map(first -> initializationComposition.compose(first, second))
-                .orElse(second);
+        return initialization;
     }
 
     @Override
@@ -132,8 +183,16 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         return licenseFactory;
     }
 
+    private int maxKeySize() {
+        return maxKeySize;
+    }
+
+    private LicenseManagementMetrics metrics() {
+        return metrics;
+    }
+
     private Date now() {
-        return Date.from(clock.instant());
+        return new Date(clock.millis());
     }
 
     private PasswordPolicy passwordPolicy() {
@@ -154,9 +213,12 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         return subject;
     }
 
+    private boolean timeIndependentValidation() {
+        return timeIndependentValidation;
+    }
+
     private LicenseValidation validation() {
-        final LicenseValidation second = new TrueLicenseValidation();
-        return validation.map(first -> validationComposition.compose(first, second)).orElse(second);
+        return validation;
     }
 
     @Override
@@ -212,6 +274,7 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         int ftpDays;
         Optional<ConsumerLicenseManager> parent = Optional.empty();
         Optional<Store> store = Optional.empty();
+        Optional<Path> storePath = Optional.empty();
 
         @SuppressWarnings("WeakerAccess")
         public final This authentication(final Authentication authentication) {
@@ -245,19 +308,26 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         @SuppressWarnings("WeakerAccess")
         public final This storeIn(final Store store) {
             this.store = Optional.ofNullable(store);
+            this.storePath = Optional.empty();
             return (This) this;
         }
 
-        public final This storeInPath(Path path) {
-            return storeIn(path(path));
+        public final This storeInPath(final Path path) {
+            storeIn(new FileChannelStore(path, maxKeySize()));
+            this.storePath = Optional.of(path);
+            return (This) this;
         }
 
         public final This storeInSystemPreferences(Class<?> classInPackage) {
-            return storeIn(systemPreferences(classInPackage, subject()));
+            return storeIn(preferencesStore(Preferences.systemNodeForPackage(classInPackage)));
         }
 
         public final This storeInUserPreferences(Class<?> classInPackage) {
-            return storeIn(userPreferences(classInPackage, subject()));
+            return storeIn(preferencesStore(Preferences.userNodeForPackage(classInPackage)));
+        }
+
+        private Store preferencesStore(Preferences node) {
+            return new CachingPreferencesStore(node, subject(), cachePeriodMillis(), metrics());
         }
 
         final class TrueAuthenticationChildBuilder implements GenBuilder<Authentication>, AuthenticationChildBuilder<This> {
@@ -420,6 +490,11 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         public PasswordProtection protection() {
             return new CheckedPasswordProtection(protection);
         }
+
+        @Override
+        public boolean keyCaching() {
+            return encryptionKeyCaching;
+        }
     }
 
     final class TrueLicenseManagerParameters implements LicenseManagerParameters {
@@ -427,15 +502,26 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         final Authentication authentication;
         final Optional<Filter> encryption;
         final int ftpDays;
+        final LicenseInitialization initialization;
         final Optional<ConsumerLicenseManager> parent;
         final Optional<Store> store;
+        final Optional<Path> storePath;
+
+        // Remembers if the compression and encryption had to be swapped when
+        // reading a license key the last time, see Filters.
+        final AtomicBoolean swappedFilters = new AtomicBoolean();
+        volatile Filter compressionAndEncryption;
 
         TrueLicenseManagerParameters(final TrueLicenseManagerBuilder<?> b) {
             this.authentication = b.authentication.get();
             this.encryption = b.encryption;
             this.ftpDays = b.ftpDays;
+            this.initialization = 0 != ftpDays
+                    ? new FtpLicenseInitialization(context().initialization(), ftpDays)
+                    : context().initialization();
             this.parent = b.parent;
             this.store = b.store;
+            this.storePath = b.storePath;
         }
 
         @Override
@@ -449,7 +535,12 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         }
 
         Filter compressionAndEncryption() {
-            return Filters.compressionAndEncryption(compression(), encryption());
+            Filter filter = compressionAndEncryption;
+            if (null == filter) {
+                compressionAndEncryption = filter =
+                        Filters.compressionAndEncryption(compression(), encryption(), metrics(), swappedFilters);
+            }
+            return filter;
         }
 
         @Override
@@ -463,19 +554,7 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         }
 
         LicenseInitialization initialization() {
-            final LicenseInitialization initialization = context().initialization();
-            if (0 != ftpDays) {
-                return bean -> {
-                    initialization.initialize(bean);
-                    final Calendar cal = getInstance();
-                    cal.setTime(bean.getIssued());
-                    bean.setNotBefore(cal.getTime()); // not before issued
-                    cal.add(DATE, ftpDays); // FTP countdown starts NOW
-                    bean.setNotAfter(cal.getTime());
-                };
-            } else {
-                return initialization;
-            }
+            return initialization;
         }
 
         License license() {
@@ -505,6 +584,30 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
             return store.get();
         }
 
+        // Re-encodes the license key in the store if its compression and
+        // encryption have been applied in the swapped order, see Filters.
+        boolean migrate() throws Exception {
+            final Store store = store();
+            final Lock lock = Locks.lock(store);
+            lock.lock();
+            try {
+                if (!store.exists()) {
+                    return false;
+                }
+                final byte[] content;
+                try {
+                    content = store.map(Filters.swappedCompressionAndEncryption(compression(), encryption())).content();
+                } catch (IOException notSwapped) {
+                    return false;
+                }
+                store.map(compressionAndEncryption()).content(content);
+                swappedFilters.set(false);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
         @Override
         public String subject() {
             return subject;
@@ -514,6 +617,8 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
 
             volatile Optional<Boolean> canGenerateLicenseKeys = Optional.empty();
 
+            final Lock canGenerateLicenseKeysLock = new ReentrantLock();
+
             @Override
             public void install(Source source) throws LicenseManagementException {
                 try {
@@ -534,12 +639,37 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
                     try {
                         return super.load(); // uses store()
                     } catch (final LicenseManagementException second) {
-                        synchronized (store()) {
-                            try {
-                                return super.load(); // repeat
-                            } catch (final LicenseManagementException third) {
-                                return generateIffNewFtp(third).license(); // uses store(), too
-                            }
+                        final Lock lock = Locks.lock(store());
+                        lock.lock();
+                        try {
+                            return super.load(); // repeat
+                        } catch (final LicenseManagementException third) {
+                            return generateIffNewFtp(third).license(); // uses store(), too
+                        } finally {
+                            lock.unlock();
+                            publish();
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public LicenseSnapshot loadSnapshot() throws LicenseManagementException {
+                try {
+                    return parent().loadSnapshot();
+                } catch (final LicenseManagementException first) {
+                    try {
+                        return super.loadSnapshot(); // uses store()
+                    } catch (final LicenseManagementException second) {
+                        final Lock lock = Locks.lock(store());
+                        lock.lock();
+                        try {
+                            return super.loadSnapshot(); // repeat
+                        } catch (final LicenseManagementException third) {
+                            return LicenseSnapshot.of(generateIffNewFtp(third).license()); // uses store(), too
+                        } finally {
+                            lock.unlock();
+                            publish();
                         }
                     }
                 }
@@ -553,12 +683,15 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
                     try {
                         super.verify(); // uses store()
                     } catch (final LicenseManagementException second) {
-                        synchronized (store()) {
-                            try {
-                                super.verify(); // repeat
-                            } catch (final LicenseManagementException third) {
-                                generateIffNewFtp(third); // uses store(), too
-                            }
+                        final Lock lock = Locks.lock(store());
+                        lock.lock();
+                        try {
+                            super.verify(); // repeat
+                        } catch (final LicenseManagementException third) {
+                            generateIffNewFtp(third); // uses store(), too
+                        } finally {
+                            lock.unlock();
+                            publish();
                         }
                     }
                 }
@@ -576,9 +709,19 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
                 }
             }
 
+            @Override
+            public void close() {
+                try {
+                    parent().close();
+                } finally {
+                    super.close();
+                }
+            }
+
             boolean canGenerateLicenseKeys() {
                 if (!canGenerateLicenseKeys.isPresent()) {
-                    synchronized (this) {
+                    canGenerateLicenseKeysLock.lock();
+                    try {
                         if (!canGenerateLicenseKeys.isPresent()) {
                             try {
                                 // Test encoding a new license key to /dev/null .
@@ -588,6 +731,8 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
                                 canGenerateLicenseKeys = Optional.of(Boolean.FALSE);
                             }
                         }
+                    } finally {
+                        canGenerateLicenseKeysLock.unlock();
                     }
                 }
                 return canGenerateLicenseKeys.get();
@@ -605,142 +750,382 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
             }
         }
 
-        class CachingLicenseManager extends TrueLicenseManager {
+        class CachingLicenseManager extends TrueLicenseManager implements LicenseEventSource {
+
+            // These caches get populated by applying a pure function which takes
+            // the immutable value of a source as its single argument.
+            // So some concurrent threads may safely interleave when populating
+            // these caches without creating a racing condition and thus it's not
+            // generally required to synchronize access to them.
+            // However, populating them is expensive, so concurrent cache misses
+            // for the same source and fingerprint get coalesced into a single
+            // computation in flight whose outcome gets shared.
+            // Each cache holds multiple associations so that alternating between
+            // sources, e.g. when installing from some source and verifying the
+            // store, doesn't evict the cached objects of the other source.
+            final Cache<Source, Decoder> cachedDecoder = new Cache<>(cachePeriodMillis(), CACHE_SIZE, metrics());
+            final Cache<Source, License> cachedLicense = new Cache<>(cachePeriodMillis(), CACHE_SIZE, metrics());
+            final SingleFlight<List<?>, Decoder> authenticating = new SingleFlight<>();
+            final SingleFlight<List<?>, License> decoding = new SingleFlight<>();
+
+            // The snapshot of the last cached license of the store which has
+            // been requested, so that loadSnapshot() returns the same instance
+            // as long as the cached license doesn't change.
+            volatile Snapshot lastSnapshot = Snapshot.NONE;
+
+            // A snapshot of the last successful verification of the store.
+            // As long as it's current, the verify() method takes a fast path
+            // which neither allocates objects nor acquires locks - except for
+            // computing the fingerprint of the store if required.
+            volatile Verification verification = Verification.NONE;
+
+            // The next refresh of the cached objects of the store, if any.
+            volatile Optional<ScheduledFuture<?>> scheduledRefresh = Optional.empty();
+
+            final LicenseEvents events = new LicenseEvents(this, clock(), expiryWarningMillis());
+
+            // The license of the store which has been decoded or installed but
+            // not yet reported to the listeners, see publish().
+            final AtomicReference<License> unpublished = new AtomicReference<>();
 
-            // These volatile fields get initialized by applying a pure function which
-            // takes the immutable value of the store() property as its single argument.
-            // So some concurrent threads may safely interleave when initializing these
-            // fields without creating a racing condition and thus it's not generally
-            // required to synchronize access to them.
-            volatile Cache<Source, Decoder> cachedDecoder = new Cache<>();
-            volatile Cache<Source, License> cachedLicense = new Cache<>();
+            @Override
+            public void addListener(LicenseListener listener) { events.add(listener); }
+
+            @Override
+            public void removeListener(LicenseListener listener) { events.remove(listener); }
 
-            @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
             @Override
             public void install(final Source source) throws LicenseManagementException {
-                final Optional<Source> optSource = Optional.of(source);
                 final Store store = store();
-                final Optional<Source> optStore = Optional.of(store);
-                synchronized (store) {
+                final Lock lock = Locks.lock(store);
+                lock.lock();
+                try {
+                    verification = Verification.NONE;
                     super.install(source);
 
                     // As a side effect of the license key installation, the cached
-                    // artifactory and license get associated to the source unless this
-                    // is a re-installation from an equal source or the cached objects
-                    // have already been obsoleted by a time-out, that is, if the cache
+                    // decoder gets associated to the source unless the cached object
+                    // has already been obsoleted by a time-out, that is, if the cache
                     // period is equal or close to zero.
-                    assert cachedDecoder.hasKey(optSource) ||
-                            cachedDecoder.hasKey(optStore) ||
-                            cachedDecoder.obsolete();
-                    assert cachedLicense.hasKey(optSource) ||
-                            cachedLicense.hasKey(optStore) ||
-                            cachedLicense.obsolete();
+                    // Move the association of the cached decoder and license to the
+                    // store or remove any stale association to the store.
+                    final Object fingerprint = fingerprint(store);
+                    cachedDecoder.move(source, store, fingerprint);
+                    cachedLicense.move(source, store, fingerprint);
+                    scheduleRefresh();
+                    if (events.hasListeners()) {
+                        unpublished.set(callChecked(() -> license(store, fingerprint)));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                publish();
+            }
 
-                    // Update the association of the cached artifactory and license to
-                    // the store.
-                    cachedDecoder = cachedDecoder.key(optStore);
-                    cachedLicense = cachedLicense.key(optStore);
+            @Override
+            public void close() {
+                final Lock lock = Locks.lock(store());
+                lock.lock();
+                try {
+                    cancelRefresh();
+                } finally {
+                    lock.unlock();
                 }
+                super.close();
             }
 
             @Override
             public void uninstall() throws LicenseManagementException {
-                final Cache<Source, Decoder> cachedDecoder = new Cache<>();
-                final Cache<Source, License> cachedLicense = new Cache<>();
-                synchronized (store()) {
+                final Lock lock = Locks.lock(store());
+                lock.lock();
+                try {
+                    verification = Verification.NONE;
                     super.uninstall();
-                    this.cachedDecoder = cachedDecoder;
-                    this.cachedLicense = cachedLicense;
+                    cancelRefresh();
+                    cachedDecoder.clear();
+                    cachedLicense.clear();
+                    lastSnapshot = Snapshot.NONE;
+                } finally {
+                    lock.unlock();
+                }
+                events.uninstalled();
+            }
+
+            @Override
+            public void verify() throws LicenseManagementException {
+                final Verification snapshot = verification;
+                if (snapshot.current() && snapshot.matches(fingerprint(store()))) {
+                    metrics().cacheHit();
+                    try {
+                        authorization().clearVerify(this);
+                    } catch (RuntimeException | LicenseManagementException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new LicenseManagementException(e);
+                    }
+                } else {
+                    try {
+                        super.verify();
+                    } finally {
+                        publish();
+                    }
+                }
+            }
+
+            @Override
+            public LicenseSnapshot loadSnapshot() throws LicenseManagementException {
+                try {
+                    return callChecked(() -> {
+                        authorization().clearLoad(this);
+                        final Store store = store();
+                        return snapshot(license(store, fingerprint(store)));
+                    });
+                } finally {
+                    publish();
                 }
             }
 
             @Override
             void validate(final Source source) throws Exception {
-                final Optional<Source> optSource = Optional.of(source);
-                Optional<License> optLicense = cachedLicense.map(optSource);
-                if (!optLicense.isPresent()) {
-                    optLicense = Optional.of(decodeLicense(source));
-                    cachedLicense = new Cache<>(optSource, optLicense, cachePeriodMillis());
+                final Object fingerprint = fingerprint(source);
+                validate(source, license(source, fingerprint), fingerprint);
+            }
+
+            // Returns the cached license in the given source or decodes it.
+            // Decoding the store leaves the license to be reported to the
+            // listeners by the calling public operation, see publish().
+            private License license(final Source source, final Object fingerprint) throws Exception {
+                final Optional<License> optLicense = cachedLicense.get(source, fingerprint);
+                if (optLicense.isPresent()) {
+                    return optLicense.get();
+                }
+                return decoding.call(Arrays.asList(source, fingerprint), () -> {
+                    final License l = decodeLicense(source);
+                    cachedLicense.put(source, l, fingerprint);
+                    if (source == store()) {
+                        unpublished.set(l);
+                        scheduleRefresh();
+                    }
+                    return l;
+                });
+            }
+
+            // Reports any unpublished license of the store to the listeners.
+            // If the current thread still holds the lock of the store, e.g. when
+            // retrying an operation of a chained license manager, then this
+            // method does nothing, so that the caller publishes the license after
+            // releasing the lock and the listeners may safely call back.
+            void publish() {
+                if (null != unpublished.get() && !Locks.heldByCurrentThread(store())) {
+                    final License license = unpublished.getAndSet(null);
+                    if (null != license) {
+                        events.seen(snapshot(license));
+                    }
+                }
+            }
+
+            // Returns a snapshot of the given cached license.
+            // The snapshot is immutable, so it can be shared with any caller
+            // without copying it.
+            private LicenseSnapshot snapshot(final License license) {
+                final Snapshot last = lastSnapshot;
+                if (last.license == license) {
+                    return last.snapshot;
+                }
+                final Snapshot next = new Snapshot(license);
+                lastSnapshot = next;
+                return next.snapshot;
+            }
+
+            private void validate(final Source source, final License license, final Object fingerprint)
+                    throws Exception {
+                validate(license);
+
+                // The outcome of the built-in validation only depends on the
+                // (immutable) cached license and the clock, so it's safe to
+                // skip it until either the cache or the license expires.
+                // A custom validation however may depend on anything else,
+                // unless it's marked as time-independent.
+                if (timeIndependentValidation() && source == store()) {
+                    final Date notAfter = license.getNotAfter();
+                    verification = Verification.until(cachedLicense.deadlineMillis(source),
+                            null == notAfter ? Long.MAX_VALUE : notAfter.getTime(), clock(), fingerprint);
                 }
-                validation().validate(optLicense.get());
             }
 
             @Override
             Decoder authenticate(final Source source) throws Exception {
-                final Optional<Source> optSource = Optional.of(source);
-                Optional<Decoder> optDecoder = cachedDecoder.map(optSource);
+                final Object fingerprint = fingerprint(source);
+                Optional<Decoder> optDecoder = cachedDecoder.get(source, fingerprint);
                 if (!optDecoder.isPresent()) {
-                    optDecoder = Optional.of(super.authenticate(source));
-                    cachedDecoder = new Cache<>(optSource, optDecoder, cachePeriodMillis());
+                    optDecoder = Optional.of(authenticating.call(Arrays.asList(source, fingerprint), () -> {
+                        final Decoder d = super.authenticate(source);
+                        cachedDecoder.put(source, d, fingerprint);
+                        return d;
+                    }));
                 }
                 return optDecoder.get();
             }
+
+            // Schedules refreshing the cached objects of the store shortly
+            // before they get obsolete, so that callers of verify() don't need
+            // to wait for decoding the license key again.
+            // The scheduled task only weakly references this license manager.
+            void scheduleRefresh() {
+                final long refreshAheadMillis = cacheRefreshAheadMillis();
+                if (0 == refreshAheadMillis || refreshAheadMillis >= cachePeriodMillis()) {
+                    return;
+                }
+                final long deadlineMillis = cachedLicense.deadlineMillis(store());
+                if (Long.MIN_VALUE == deadlineMillis || Long.MAX_VALUE == deadlineMillis) {
+                    return;
+                }
+                final long delayMillis = Math.max(0, deadlineMillis - refreshAheadMillis - currentTimeMillis());
+                final WeakReference<CachingLicenseManager> reference = new WeakReference<>(this);
+                final Optional<ScheduledFuture<?>> previous = scheduledRefresh;
+                scheduledRefresh = Optional.of(Scheduler.schedule(() -> {
+                    final CachingLicenseManager manager = reference.get();
+                    if (null != manager) {
+                        manager.refresh();
+                    }
+                }, delayMillis));
+                previous.ifPresent(future -> future.cancel(false));
+            }
+
+            void cancelRefresh() {
+                scheduledRefresh.ifPresent(future -> future.cancel(false));
+                scheduledRefresh = Optional.empty();
+            }
+
+            // Decodes and validates the store again, bypassing the caches.
+            // Meanwhile, callers of verify() keep being served from the
+            // current caches and verification snapshot.
+            void refresh() {
+                final Store store = store();
+                final Lock lock = Locks.lock(store);
+                Optional<LicenseSnapshot> decoded = Optional.empty();
+                lock.lock();
+                try {
+                    final Object fingerprint = fingerprint(store);
+                    cachedDecoder.put(store, super.authenticate(store), fingerprint);
+                    final License license = decodeLicense(store);
+                    cachedLicense.put(store, license, fingerprint);
+                    decoded = Optional.of(snapshot(license));
+                    validate(store, license, fingerprint);
+                    scheduleRefresh();
+                } catch (Exception ignored) {
+                    // Leave it to the next caller of verify() to fail.
+                } finally {
+                    lock.unlock();
+                }
+                // Publish without holding the lock, like install() does.
+                decoded.ifPresent(events::seen);
+            }
+
+            // Returns the fingerprint of the given source if it's the store
+            // and external changes to it should be detected, or null otherwise.
+            // The fingerprint gets computed before decoding the source, so if
+            // the store changes concurrently, then the next lookup misses.
+            Object fingerprint(final Source source) {
+                final LicenseCacheInvalidation invalidation = cacheInvalidation();
+                if (LicenseCacheInvalidation.timeout == invalidation || source != store()) {
+                    return null;
+                } else if (LicenseCacheInvalidation.metadata == invalidation && storePath.isPresent()) {
+                    return Fingerprints.metadata(storePath.get());
+                } else {
+                    return Fingerprints.content(source);
+                }
+            }
         }
 
         class TrueLicenseManager
                 extends TrueLicenseManagerBase
                 implements ConsumerLicenseManager, VendorLicenseManager {
 
+            final SingleFlight<Store, LicenseSnapshot> loadingSnapshot = new SingleFlight<>();
+            final SingleFlight<Store, Void> verifying = new SingleFlight<>();
+
             @Override
             public LicenseKeyGenerator generateKeyFrom(final License bean) throws LicenseManagementException {
+                return callChecked(() -> {
+                    authorization().clearGenerate(this);
+                    return new TrueLicenseKeyGenerator(bean, initialization(), validation(), compressionAndEncryption());
+                });
+            }
 
-                class TrueLicenseKeyGenerator implements LicenseKeyGenerator {
-
-                    private final Object model = repositoryFactory().model();
-                    private Decoder decoder;
+            final class TrueLicenseKeyGenerator implements LicenseKeyGenerator {
+
+                private final License bean;
+                private final LicenseInitialization initialization;
+                private final LicenseValidation validation;
+                private final Filter compressionAndEncryption;
+                private final Object model = repositoryFactory().model();
+                private final Lock lock = new ReentrantLock();
+                private Decoder decoder;
+
+                TrueLicenseKeyGenerator(
+                        final License bean,
+                        final LicenseInitialization initialization,
+                        final LicenseValidation validation,
+                        final Filter compressionAndEncryption
+                ) {
+                    this.bean = bean;
+                    this.initialization = initialization;
+                    this.validation = validation;
+                    this.compressionAndEncryption = compressionAndEncryption;
+                }
 
-                    @Override
-                    public License license() throws LicenseManagementException {
-                        return callChecked(() -> decoder().decode(licenseClass()));
-                    }
+                @Override
+                public License license() throws LicenseManagementException {
+                    return callChecked(() -> decoder().decode(licenseClass()));
+                }
 
-                    @Override
-                    public LicenseKeyGenerator saveTo(final Sink sink) throws LicenseManagementException {
-                        callChecked(() -> {
-                            codec().encoder(sink.map(compressionAndEncryption())).encode(model());
-                            return null;
-                        });
-                        return this;
-                    }
+                @Override
+                public LicenseKeyGenerator saveTo(final Sink sink) throws LicenseManagementException {
+                    callChecked(() -> {
+                        codec().encoder(sink.map(compressionAndEncryption)).encode(model());
+                        return null;
+                    });
+                    return this;
+                }
 
-                    private Decoder decoder() throws Exception {
-                        init();
-                        return decoder;
-                    }
+                private Decoder decoder() throws Exception {
+                    init();
+                    return decoder;
+                }
 
-                    private Object model() throws Exception {
-                        init();
-                        return model;
-                    }
+                private Object model() throws Exception {
+                    init();
+                    return model;
+                }
 
-                    synchronized private void init() throws Exception {
+                private void init() throws Exception {
+                    lock.lock();
+                    try {
                         if (null == decoder) {
                             decoder = authentication()
                                     .sign(repositoryFactory().controller(codec(), model), validatedBean());
                         }
+                    } finally {
+                        lock.unlock();
                     }
+                }
 
-                    private License validatedBean() throws Exception {
-                        final License duplicate = initializedBean();
-                        validation().validate(duplicate);
-                        return duplicate;
-                    }
-
-                    private License initializedBean() throws Exception {
-                        final License duplicate = duplicatedBean();
-                        initialization().initialize(duplicate);
-                        return duplicate;
-                    }
+                private License validatedBean() throws Exception {
+                    final License duplicate = initializedBean();
+                    validation.validate(duplicate);
+                    return duplicate;
+                }
 
-                    private License duplicatedBean() throws Exception {
-                        return memory().connect(codec()).clone(bean);
-                    }
+                private License initializedBean() throws Exception {
+                    final License duplicate = duplicatedBean();
+                    initialization.initialize(duplicate);
+                    return duplicate;
                 }
 
-                return callChecked(() -> {
-                    authorization().clearGenerate(this);
-                    return new TrueLicenseKeyGenerator();
-                });
+                private License duplicatedBean() throws Exception {
+                    return memory().connect(codec()).clone(bean);
+                }
             }
 
             @Override
@@ -770,6 +1155,36 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
                 });
             }
 
+            // Unlike verify(), this bypasses the store and the caches of any
+            // subclass, so it's safe to use with many different sources.
+            @Override
+            public List<CompletableFuture<License>> verifyKeys(
+                    final Iterable<? extends Source> sources,
+                    final Executor executor
+            ) throws LicenseManagementException {
+                return callChecked(() -> {
+                    authorization().clearVerify(this);
+                    final List<CompletableFuture<License>> futures = new ArrayList<>();
+                    for (final Source source : sources) {
+                        futures.add(CompletableFuture.supplyAsync(() -> {
+                            try {
+                                return callChecked(() -> {
+                                    // Each license key gets its own memory of the filter order, so
+                                    // that keys in different orders don't keep falling back.
+                                    final License license =
+                                            decodeLicense(verifySignature(source, new AtomicBoolean()));
+                                    validate(license);
+                                    return license;
+                                });
+                            } catch (LicenseManagementException e) {
+                                throw new CompletionException(e);
+                            }
+                        }, executor));
+                    }
+                    return futures;
+                });
+            }
+
             @Override
             public void uninstall() throws LicenseManagementException {
                 callChecked(() -> {
@@ -789,36 +1204,113 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
             //
 
             void validate(Source source) throws Exception {
-                validation().validate(decodeLicense(source));
+                validate(decodeLicense(source));
+            }
+
+            void validate(final License license) throws Exception {
+                StageTimer.time(metrics(), LicenseManagementStage.validation, () -> {
+                    validation().validate(license);
+                    return null;
+                });
             }
 
             License decodeLicense(Source source) throws Exception {
-                return authenticate(source).decode(licenseClass());
+                return decodeLicense(authenticate(source));
+            }
+
+            final License decodeLicense(final Decoder decoder) throws Exception {
+                return StageTimer.time(metrics(), LicenseManagementStage.decoding, () -> decoder.decode(licenseClass()));
             }
 
             Decoder authenticate(Source source) throws Exception {
-                return authentication().verify(repositoryController(source));
+                return verifySignature(source);
+            }
+
+            final Decoder verifySignature(Source source) throws Exception {
+                return verifySignature(source, swappedFilters);
             }
 
-            RepositoryController repositoryController(Source source) throws Exception {
-                return repositoryFactory().controller(codec(), repositoryModel(source));
+            final Decoder verifySignature(final Source source, final AtomicBoolean swapped) throws Exception {
+                final RepositoryController controller = repositoryController(source, swapped);
+                return StageTimer.time(metrics(), LicenseManagementStage.authentication,
+                        () -> authentication().verify(controller));
             }
 
-            Object repositoryModel(Source source) throws Exception {
-                return codec()
-                        .decoder(decryptedAndDecompressedSource(source))
-                        .decode(repositoryFactory().modelClass());
+            RepositoryController repositoryController(Source source, AtomicBoolean swapped) throws Exception {
+                return repositoryFactory().controller(codec(), repositoryModel(source, swapped));
+            }
+
+            Object repositoryModel(final Source source, final AtomicBoolean swapped) throws Exception {
+                final LicenseManagementMetrics metrics = metrics();
+                if (LicenseManagementMetrics.NONE == metrics) {
+                    final Source decryptedAndDecompressed = swapped == swappedFilters
+                            ? decryptedAndDecompressedSource(source)
+                            : source.map(Filters.compressionAndEncryption(
+                                    compression(), encryption(), metrics, swapped));
+                    return codec()
+                            .decoder(decryptedAndDecompressed)
+                            .decode(repositoryFactory().modelClass());
+                }
+                final StageTimer timer = new StageTimer(LicenseManagementStage.decoding);
+                try {
+                    final Filter filter = Filters.compressionAndEncryption(
+                            timer.filter(LicenseManagementStage.decompression, compression()),
+                            timer.filter(LicenseManagementStage.decryption, encryption()),
+                            metrics,
+                            swapped);
+                    return codec()
+                            .decoder(source.map(filter))
+                            .decode(repositoryFactory().modelClass());
+                } finally {
+                    timer.stop(metrics);
+                }
             }
 
             Source decryptedAndDecompressedSource(Source source) {
                 return source.map(compressionAndEncryption());
             }
 
+            @Override
+            public TrueAsyncLicenseManager async(Executor executor) {
+                return new TrueAsyncLicenseManager(Objects.requireNonNull(executor));
+            }
+
             @Override
             public TrueUncheckedLicenseManager unchecked() {
                 return new TrueUncheckedLicenseManager();
             }
 
+            // Coalesces concurrent calls to verify() and loadSnapshot() from
+            // any asynchronous license manager for this license manager.
+            final class TrueAsyncLicenseManager implements AsyncVendorLicenseManager, AsyncConsumerLicenseManager {
+
+                final Executor executor;
+
+                TrueAsyncLicenseManager(final Executor executor) {
+                    this.executor = executor;
+                }
+
+                @Override
+                public CompletableFuture<LicenseSnapshot> loadSnapshot() {
+                    return loadingSnapshot.callAsync(store(), AsyncConsumerLicenseManager.super::loadSnapshot);
+                }
+
+                @Override
+                public CompletableFuture<Void> verify() {
+                    return verifying.callAsync(store(), AsyncConsumerLicenseManager.super::verify);
+                }
+
+                @Override
+                public TrueLicenseManager sync() {
+                    return TrueLicenseManager.this;
+                }
+
+                @Override
+                public Executor executor() {
+                    return executor;
+                }
+            }
+
             final class TrueUncheckedLicenseManager
                     extends TrueLicenseManagerBase
                     implements UncheckedVendorLicenseManager, UncheckedConsumerLicenseManager {
@@ -828,6 +1320,16 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
                     return TrueLicenseManager.this;
                 }
 
+                @Override
+                public TrueAsyncLicenseManager async(Executor executor) {
+                    return checked().async(executor);
+                }
+
+                @Override
+                public void close() {
+                    checked().close();
+                }
+
                 @Override
                 public TrueUncheckedLicenseManager unchecked() {
                     return this;
@@ -849,6 +1351,31 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         }
     }
 
+    /**
+     * Decorates a license initialization so that the validity period of the license starts at its issue date and ends
+     * the given number of days later in the default time zone, as required for a free trial period (FTP).
+     */
+    static final class FtpLicenseInitialization implements LicenseInitialization {
+
+        private final LicenseInitialization initialization;
+        private final int ftpDays;
+
+        FtpLicenseInitialization(final LicenseInitialization initialization, final int ftpDays) {
+            this.initialization = initialization;
+            this.ftpDays = ftpDays;
+        }
+
+        @Override
+        public void initialize(final License bean) {
+            initialization.initialize(bean);
+            final Date issued = bean.getIssued();
+            bean.setNotBefore(new Date(issued.getTime())); // not before issued
+            // FTP countdown starts NOW:
+            final Instant notAfter = issued.toInstant().atZone(ZoneId.systemDefault()).plusDays(ftpDays).toInstant();
+            bean.setNotAfter(Date.from(notAfter));
+        }
+    }
+
     final class TrueLicenseInitialization implements LicenseInitialization {
 
         @Obfuscate
@@ -902,13 +1429,13 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
             if (null == bean.getIssuer()) {
                 throw new LicenseValidationException(Messages.message(Messages.ISSUER_IS_NULL));
             }
-            final Date now = now(); // don't trust the system clock!
+            final long nowMillis = clock().millis(); // don't trust the system clock!
             final Date notAfter = bean.getNotAfter();
-            if (null != notAfter && now.after(notAfter)) {
+            if (null != notAfter && nowMillis > notAfter.getTime()) {
                 throw new LicenseValidationException(Messages.message(Messages.LICENSE_HAS_EXPIRED, notAfter));
             }
             final Date notBefore = bean.getNotBefore();
-            if (null != notBefore && now.before(notBefore)) {
+            if (null != notBefore && nowMillis < notBefore.getTime()) {
                 throw new LicenseValidationException(Messages.message(Messages.LICENSE_IS_NOT_YET_VALID, notBefore));
             }
             if (!subject().equals(bean.getSubject())) {
@@ -917,6 +1444,25 @@ final class TrueLicenseManagementContext implements LicenseManagementContext, Au
         }
     }
 
+    // Associates a cached license with its snapshot.
+    static final class Snapshot {
+
+        static final Snapshot NONE = new Snapshot();
+
+        final License license;
+        final LicenseSnapshot snapshot;
+
+        private Snapshot() {
+            this.license = null;
+            this.snapshot = null;
+        }
+
+        Snapshot(final License license) {
+            this.license = license;
+            this.snapshot = LicenseSnapshot.of(license);
+        }
+    }
+
     final class CheckedPasswordProtection implements PasswordProtection {
 
         final PasswordProtection protection;
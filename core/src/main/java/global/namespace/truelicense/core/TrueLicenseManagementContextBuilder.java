@@ -25,15 +25,21 @@ final class TrueLicenseManagementContextBuilder implements LicenseManagementCont
 
     AuthenticationFactory authenticationFactory = Notary::new;
     LicenseManagementAuthorization authorization = LicenseManagementAuthorization.ALL;
+    LicenseCacheInvalidation cacheInvalidation = LicenseCacheInvalidation.timeout;
     long cachePeriodMillis = 30 * 60 * 1000;
+    long cacheRefreshAheadMillis;
     Clock clock = Clock.systemDefaultZone();
     Optional<CodecFactory> codecFactory = Optional.empty();
     Optional<Filter> compression = Optional.empty();
     String encryptionAlgorithm = "";
     Optional<EncryptionFactory> encryptionFactory = Optional.empty();
+    boolean encryptionKeyCaching;
+    long expiryWarningMillis;
     Optional<LicenseFactory> licenseFactory = Optional.empty();
     Optional<LicenseInitialization> initialization = Optional.empty();
     LicenseFunctionComposition initializationComposition = LicenseFunctionComposition.decorate;
+    int maxKeySize = 16 * 1024 * 1024;
+    LicenseManagementMetrics metrics = LicenseManagementMetrics.NONE;
     PasswordPolicy passwordPolicy = new MinimumPasswordPolicy();
     Optional<RepositoryFactory<?>> repositoryFactory = Optional.empty();
     String subject = "";
@@ -62,6 +68,21 @@ final class TrueLicenseManagementContextBuilder implements LicenseManagementCont
         return this;
     }
 
+    @Override
+    public LicenseManagementContextBuilder cacheInvalidation(final LicenseCacheInvalidation invalidation) {
+        this.cacheInvalidation = requireNonNull(invalidation);
+        return this;
+    }
+
+    @Override
+    public LicenseManagementContextBuilder cacheRefreshAheadMillis(final long cacheRefreshAheadMillis) {
+        if (cacheRefreshAheadMillis < 0) {
+            throw new IllegalArgumentException("" + cacheRefreshAheadMillis);
+        }
+        this.cacheRefreshAheadMillis = cacheRefreshAheadMillis;
+        return this;
+    }
+
     @Override
     public LicenseManagementContextBuilder clock(final Clock clock) {
         this.clock = requireNonNull(clock);
@@ -92,6 +113,21 @@ final class TrueLicenseManagementContextBuilder implements LicenseManagementCont
         return this;
     }
 
+    @Override
+    public LicenseManagementContextBuilder encryptionKeyCaching(final boolean encryptionKeyCaching) {
+        this.encryptionKeyCaching = encryptionKeyCaching;
+        return this;
+    }
+
+    @Override
+    public LicenseManagementContextBuilder expiryWarningMillis(final long expiryWarningMillis) {
+        if (expiryWarningMillis < 0) {
+            throw new IllegalArgumentException("" + expiryWarningMillis);
+        }
+        this.expiryWarningMillis = expiryWarningMillis;
+        return this;
+    }
+
     @Override
     public LicenseManagementContextBuilder initialization(final LicenseInitialization initialization) {
         this.initialization = Optional.ofNullable(initialization);
@@ -110,6 +146,21 @@ final class TrueLicenseManagementContextBuilder implements LicenseManagementCont
         return this;
     }
 
+    @Override
+    public LicenseManagementContextBuilder maxKeySize(final int maxKeySize) {
+        if (maxKeySize < 0) {
+            throw new IllegalArgumentException("" + maxKeySize);
+        }
+        this.maxKeySize = maxKeySize;
+        return this;
+    }
+
+    @Override
+    public LicenseManagementContextBuilder metrics(final LicenseManagementMetrics metrics) {
+        this.metrics = requireNonNull(metrics);
+        return this;
+    }
+
     @Override
     public LicenseManagementContextBuilder passwordPolicy(final PasswordPolicy passwordPolicy) {
         this.passwordPolicy = requireNonNull(passwordPolicy);
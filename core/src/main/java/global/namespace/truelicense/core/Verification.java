@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core;
+
+import java.time.Clock;
+import java.util.Objects;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+
+/**
+ * A snapshot of a successful license verification.
+ * The snapshot is current until the earliest instant when the outcome of the verification could change, that is,
+ * when either the cache period of the verified license expires or the license itself expires.
+ * The start of the validity period doesn't matter because it has already been reached when the license was verified.
+ * This instant gets converted into a deadline for the monotonic system timer, so that checking if a snapshot is
+ * current is a single comparison which neither allocates objects nor acquires locks, and isn't affected by
+ * adjustments of the system time.
+ * Optionally, the snapshot also holds the fingerprint of the store in order to detect external changes to it.
+ * This class is immutable.
+ */
+final class Verification {
+
+    /**
+     * The maximum remaining time of a snapshot in nanoseconds.
+     * Comparing values of {@link System#nanoTime()} only works for spans of less than 2<sup>63</sup> nanoseconds.
+     */
+    private static final long MAX_REMAINING_NANOS = Long.MAX_VALUE / 2;
+
+    /**
+     * A snapshot which is never current.
+     * Its deadline is the value of the monotonic system timer when this class got initialized, so it's always passed.
+     */
+    static final Verification NONE = new Verification(nanoTime(), null);
+
+    private final long deadlineNanos;
+    private final Object fingerprint;
+
+    private Verification(final long deadlineNanos, final Object fingerprint) {
+        this.deadlineNanos = deadlineNanos;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns a new snapshot for a license which has been successfully verified.
+     *
+     * @param cacheDeadlineMillis the system time in milliseconds when the cached license gets obsolete or
+     *                            {@link Long#MIN_VALUE} if it's not cached.
+     * @param notAfterMillis the expiration time of the license in milliseconds since the epoch or
+     *                       {@link Long#MAX_VALUE} if it doesn't expire.
+     * @param clock the clock which has been used to validate the license.
+     * @param fingerprint the nullable fingerprint of the store.
+     */
+    static Verification until(
+            final long cacheDeadlineMillis,
+            final long notAfterMillis,
+            final Clock clock,
+            final Object fingerprint
+    ) {
+        final long startNanos = nanoTime();
+        if (Long.MIN_VALUE == cacheDeadlineMillis) {
+            return NONE;
+        }
+        // The license is valid as long as `now <= notAfterMillis`, so it expires in the next millisecond:
+        final long remainingMillis = Math.min(
+                remainingMillis(cacheDeadlineMillis, currentTimeMillis()),
+                Long.MAX_VALUE == notAfterMillis ? Long.MAX_VALUE : remainingMillis(notAfterMillis + 1, clock.millis())
+        );
+        if (0 >= remainingMillis) {
+            return NONE;
+        }
+        final long remainingNanos = remainingMillis < MAX_REMAINING_NANOS / 1_000_000
+                ? remainingMillis * 1_000_000
+                : MAX_REMAINING_NANOS;
+        return new Verification(startNanos + remainingNanos, fingerprint);
+    }
+
+    private static long remainingMillis(final long deadlineMillis, final long nowMillis) {
+        final long remainingMillis = deadlineMillis - nowMillis;
+        // Guard against overflow:
+        return (deadlineMillis ^ nowMillis) < 0 && (deadlineMillis ^ remainingMillis) < 0
+                ? (deadlineMillis < 0 ? Long.MIN_VALUE : Long.MAX_VALUE)
+                : remainingMillis;
+    }
+
+    /** Returns {@code true} if and only if this snapshot is current. */
+    boolean current() { return nanoTime() - deadlineNanos < 0; }
+
+    /** Returns {@code true} if and only if this snapshot has been taken with the given fingerprint of the store. */
+    boolean matches(Object fingerprint) { return Objects.equals(this.fingerprint, fingerprint); }
+}
@@ -15,6 +15,7 @@ import global.namespace.truelicense.api.passwd.PasswordProtection;
 import global.namespace.truelicense.api.passwd.PasswordUsage;
 import global.namespace.truelicense.obfuscate.Obfuscate;
 
+import javax.security.auth.DestroyFailedException;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -23,10 +24,17 @@ import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Signs or verifies a generic artifact using a private or public key in a keystore entry.
- * This class is immutable.
+ * The keystore and its keys get loaded only once and the signature engines get pooled for reuse until this notary
+ * gets {@linkplain #close() closed}, e.g. by {@linkplain global.namespace.truelicense.api.LicenseManagerMixin#close()
+ * closing} a license manager which uses it.
+ * This class is thread-safe.
  */
 public final class Notary implements Authentication {
 
@@ -42,7 +50,11 @@ public final class Notary implements Authentication {
     @Obfuscate
     static final String NO_SUCH_ENTRY = "noSuchEntry";
 
+    /** The maximum number of idle signature engines to keep for reuse. */
+    private static final int MAX_IDLE_ENGINES = Runtime.getRuntime().availableProcessors();
+
     private final AuthenticationParameters parameters;
+    private volatile Cache cache = new Cache();
 
     public Notary(final AuthenticationParameters parameters) {
         this.parameters = Objects.requireNonNull(parameters);
@@ -50,12 +62,24 @@ public final class Notary implements Authentication {
 
     @Override
     public Decoder sign(RepositoryController controller, Object artifact) throws Exception {
-        return new Cache().sign(controller, artifact);
+        return cache.sign(controller, artifact);
     }
 
     @Override
     public Decoder verify(RepositoryController controller) throws Exception {
-        return new Cache().verify(controller);
+        return cache.verify(controller);
+    }
+
+    /**
+     * Discards the loaded keystore and its keys and the pooled signature engines.
+     * The private key gets destroyed if supported by its implementation.
+     * This notary remains usable, so any subsequent call to {@link #sign} or {@link #verify} loads the keystore again.
+     */
+    @Override
+    public void close() {
+        final Cache cache = this.cache;
+        this.cache = new Cache();
+        cache.destroy();
     }
 
     private AuthenticationParameters parameters() {
@@ -64,29 +88,59 @@ public final class Notary implements Authentication {
 
     private final class Cache {
 
+        final BlockingQueue<Signature> engines = new ArrayBlockingQueue<>(MAX_IDLE_ENGINES);
+
+        // Unlike an intrinsic lock, this lock doesn't pin the carrier thread
+        // of a virtual thread while loading the keystore.
+        final Lock lock = new ReentrantLock();
+
+        // The following fields are lazily initialized while holding the lock:
         KeyStore keyStore;
+        volatile String algorithm;
+        volatile PrivateKey privateKey;
+        volatile PublicKey publicKey;
 
         Decoder sign(RepositoryController controller, Object artifact) throws Exception {
             final Signature engine = engine();
-            final PrivateKey key = privateKey();
-            engine.initSign(key);
-            return controller.sign(engine, artifact);
+            try {
+                engine.initSign(privateKey());
+                return controller.sign(engine, artifact);
+            } finally {
+                engines.offer(engine);
+            }
         }
 
         Decoder verify(RepositoryController controller) throws Exception {
             final Signature engine = engine();
-            final PublicKey key = publicKey();
-            engine.initVerify(key);
-            return controller.verify(engine);
+            try {
+                engine.initVerify(publicKey());
+                return controller.verify(engine);
+            } finally {
+                engines.offer(engine);
+            }
         }
 
         Signature engine() throws Exception {
-            return Signature.getInstance(algorithm());
+            final Signature engine = engines.poll();
+            return null != engine ? engine : Signature.getInstance(algorithm());
         }
 
         String algorithm() throws Exception {
-            final Optional<String> configuredAlgorithm = configuredAlgorithm();
-            return configuredAlgorithm.isPresent() ? configuredAlgorithm.get() : defaultAlgorithm();
+            String algorithm = this.algorithm;
+            if (null == algorithm) {
+                lock.lock();
+                try {
+                    if (null == (algorithm = this.algorithm)) {
+                        final Optional<String> configuredAlgorithm = configuredAlgorithm();
+                        this.algorithm = algorithm = configuredAlgorithm.isPresent()
+                                ? configuredAlgorithm.get()
+                                : defaultAlgorithm();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return algorithm;
         }
 
         String defaultAlgorithm() throws Exception {
@@ -99,6 +153,21 @@ public final class Notary implements Authentication {
         }
 
         PrivateKey privateKey() throws Exception {
+            PrivateKey key = this.privateKey;
+            if (null == key) {
+                lock.lock();
+                try {
+                    if (null == (key = this.privateKey)) {
+                        this.privateKey = key = newPrivateKey();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return key;
+        }
+
+        PrivateKey newPrivateKey() throws Exception {
             final KeyStore.Entry entry = keyStoreEntry(PasswordUsage.ENCRYPTION);
             if (entry instanceof KeyStore.PrivateKeyEntry) {
                 return ((KeyStore.PrivateKeyEntry) entry).getPrivateKey();
@@ -108,7 +177,18 @@ public final class Notary implements Authentication {
         }
 
         PublicKey publicKey() throws Exception {
-            return certificate().getPublicKey();
+            PublicKey key = this.publicKey;
+            if (null == key) {
+                lock.lock();
+                try {
+                    if (null == (key = this.publicKey)) {
+                        this.publicKey = key = certificate().getPublicKey();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return key;
         }
 
         Certificate certificate() throws Exception {
@@ -154,8 +234,13 @@ public final class Notary implements Authentication {
         }
 
         KeyStore keyStore() throws Exception {
-            final KeyStore ks = keyStore;
-            return null != ks ? ks : (keyStore = newKeyStore());
+            lock.lock();
+            try {
+                final KeyStore ks = keyStore;
+                return null != ks ? ks : (keyStore = newKeyStore());
+            } finally {
+                lock.unlock();
+            }
         }
 
         KeyStore newKeyStore() throws Exception {
@@ -172,6 +257,26 @@ public final class Notary implements Authentication {
             }
         }
 
+        void destroy() {
+            lock.lock();
+            try {
+                engines.clear();
+                final PrivateKey key = privateKey;
+                keyStore = null;
+                privateKey = null;
+                publicKey = null;
+                if (null != key && !key.isDestroyed()) {
+                    try {
+                        key.destroy();
+                    } catch (DestroyFailedException ignored) {
+                        // Not supported by most JCA providers.
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
         Message message(String key) {
             return Messages.message(key, alias());
         }
@@ -12,15 +12,33 @@ import global.namespace.truelicense.api.passwd.PasswordUsage;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A mix-in for a password based encryption.
- * This class is immutable.
+ * If {@linkplain EncryptionParameters#keyCaching() key caching} is enabled, then this class caches the keys which
+ * subclasses derive using {@link #derivedKey}.
+ * The cache holds a bounded number of keys and evicts the least recently used key when it's full.
+ * Callers only ever get a copy of a cached key, so evicting or {@linkplain #close() destroying} a cached key never
+ * affects a key which is still in use.
+ * This class is thread-safe.
  */
 public abstract class EncryptionMixin {
 
+    /** The maximum number of derived keys to cache. */
+    private static final int MAX_DERIVED_KEYS = 16;
+
     private final EncryptionParameters parameters;
+    private final Lock lock = new ReentrantLock();
+
+    // This map is guarded by the lock.
+    private final Map<DerivedKeyId, byte[]> derivedKeys = new LinkedHashMap<>(MAX_DERIVED_KEYS * 2, 0.75f, true);
 
     protected EncryptionMixin(final EncryptionParameters parameters) {
         this.parameters = Objects.requireNonNull(parameters);
@@ -34,6 +52,10 @@ public abstract class EncryptionMixin {
         return parameters.algorithm();
     }
 
+    protected final boolean keyCaching() {
+        return parameters.keyCaching();
+    }
+
     protected final SecretKey secretKey(final PasswordUsage usage) throws Exception {
         try (Password password = passwordProtection().password(usage)) {
             final PBEKeySpec ks = new PBEKeySpec(password.characters());
@@ -44,4 +66,103 @@ public abstract class EncryptionMixin {
             }
         }
     }
+
+    /**
+     * Returns the key which gets derived from the password for the given usage and the given salt and iteration count
+     * using the given key derivation function.
+     * The derived key gets cached and the caller gets a copy of it, which it should zero after use.
+     * The password is provided to the key derivation function in the encoded form of the {@link #secretKey} for the
+     * given usage, so it gets checked just like when using the secret key for initializing a cipher.
+     */
+    protected final byte[] derivedKey(
+            final PasswordUsage usage,
+            final byte[] salt,
+            final int iterationCount,
+            final KeyDerivation derivation
+    ) throws Exception {
+        final DerivedKeyId id = new DerivedKeyId(usage, salt, iterationCount);
+        lock.lock();
+        try {
+            final byte[] cached = derivedKeys.get(id);
+            if (null != cached) {
+                return cached.clone();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Derive the key without holding the lock because this is expensive:
+        final byte[] password = secretKey(usage).getEncoded();
+        final byte[] derived;
+        try {
+            derived = derivation.derive(password, salt, iterationCount);
+        } finally {
+            Arrays.fill(password, (byte) 0);
+        }
+        lock.lock();
+        try {
+            final byte[] previous = derivedKeys.putIfAbsent(id, derived);
+            if (null != previous) {
+                Arrays.fill(derived, (byte) 0);
+                return previous.clone();
+            }
+            if (derivedKeys.size() > MAX_DERIVED_KEYS) {
+                final Iterator<byte[]> eldest = derivedKeys.values().iterator();
+                Arrays.fill(eldest.next(), (byte) 0);
+                eldest.remove();
+            }
+            return derived.clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Destroys all cached keys. */
+    public void close() {
+        lock.lock();
+        try {
+            for (final byte[] key : derivedKeys.values()) {
+                Arrays.fill(key, (byte) 0);
+            }
+            derivedKeys.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** A function which derives a key from a password, salt and iteration count. */
+    @FunctionalInterface
+    protected interface KeyDerivation {
+
+        byte[] derive(byte[] password, byte[] salt, int iterationCount) throws Exception;
+    }
+
+    private static final class DerivedKeyId {
+
+        final PasswordUsage usage;
+        final byte[] salt;
+        final int iterationCount;
+
+        DerivedKeyId(final PasswordUsage usage, final byte[] salt, final int iterationCount) {
+            this.usage = usage;
+            this.salt = salt.clone();
+            this.iterationCount = iterationCount;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof DerivedKeyId)) {
+                return false;
+            }
+            final DerivedKeyId that = (DerivedKeyId) other;
+            return usage == that.usage && Arrays.equals(salt, that.salt) && iterationCount == that.iterationCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * usage.hashCode() + Arrays.hashCode(salt)) + iterationCount;
+        }
+    }
 }
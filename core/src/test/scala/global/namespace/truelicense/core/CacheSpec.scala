@@ -0,0 +1,82 @@
+package global.namespace.truelicense.core
+
+import global.namespace.truelicense.api.LicenseManagementMetrics
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.Optional
+
+class CacheSpec extends AnyWordSpec {
+
+  "A cache" should {
+    "hold multiple associations" in {
+      val cache = new Cache[String, String](Long.MaxValue, 2)
+      cache.put("a", "1")
+      cache.put("b", "2")
+      cache get "a" shouldBe Optional.of("1")
+      cache get "b" shouldBe Optional.of("2")
+      cache.hits shouldBe 2
+      cache.misses shouldBe 0
+    }
+
+    "evict the least recently used association if the maximum size is exceeded" in {
+      val cache = new Cache[String, String](Long.MaxValue, 2)
+      cache.put("a", "1")
+      cache.put("b", "2")
+      cache get "a" shouldBe Optional.of("1")
+      cache.put("c", "3")
+      cache get "b" shouldBe Optional.empty
+      cache get "a" shouldBe Optional.of("1")
+      cache get "c" shouldBe Optional.of("3")
+      cache.evictions shouldBe 1
+      cache.misses shouldBe 1
+    }
+
+    "not return obsolete associations" in {
+      val cache = new Cache[String, String](0, 2)
+      cache.put("a", "1")
+      cache get "a" shouldBe Optional.empty
+      cache.evictions shouldBe 1
+      cache deadlineMillis "a" shouldBe Long.MinValue
+    }
+
+    "move an association to another key" in {
+      val cache = new Cache[String, String](Long.MaxValue, 2)
+      cache.put("a", "1")
+      cache.put("b", "2")
+      cache.move("a", "b", null)
+      cache get "a" shouldBe Optional.empty
+      cache get "b" shouldBe Optional.of("1")
+      cache.move("a", "b", null)
+      cache get "b" shouldBe Optional.empty
+    }
+
+    "invalidate an association if its fingerprint changes" in {
+      val cache = new Cache[String, String](Long.MaxValue, 2)
+      cache.put("a", "1", "x")
+      cache.get("a", "x") shouldBe Optional.of("1")
+      cache.get("a", "y") shouldBe Optional.empty
+      cache.get("a", "x") shouldBe Optional.empty
+      cache.put("a", "1", "x")
+      cache.move("a", "a", "y")
+      cache.get("a", "y") shouldBe Optional.of("1")
+    }
+
+    "report hits, misses, expirations and evictions to the metrics" in {
+      var hits, misses, expirations, evictions = 0
+      val metrics = new LicenseManagementMetrics {
+        override def cacheHit(): Unit = hits += 1
+        override def cacheMiss(): Unit = misses += 1
+        override def cacheExpiration(): Unit = expirations += 1
+        override def cacheEviction(): Unit = evictions += 1
+      }
+      val cache = new Cache[String, String](Long.MaxValue, 1, metrics)
+      cache.put("a", "1", "x")
+      cache.get("a", "x") shouldBe Optional.of("1")
+      cache.put("b", "2")
+      cache get "a" shouldBe Optional.empty
+      cache.get("b", "y") shouldBe Optional.empty
+      (hits, misses, expirations, evictions) shouldBe ((1, 2, 1, 1))
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package global.namespace.truelicense.core
+
+import global.namespace.fun.io.api.NoContentException
+import global.namespace.truelicense.api.LicenseManagementMetrics
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.prefs.Preferences
+
+class CachingPreferencesStoreSpec extends AnyWordSpec {
+
+  private def withNode(test: Preferences => Any): Unit = {
+    val node = Preferences.userNodeForPackage(classOf[CachingPreferencesStoreSpec]).node("CachingPreferencesStoreSpec")
+    try {
+      test(node)
+    } finally {
+      node.removeNode()
+    }
+  }
+
+  private def eventually(condition: => Boolean): Unit = {
+    val deadline = System.currentTimeMillis + 5000
+    while (!condition && System.currentTimeMillis < deadline) {
+      Thread.sleep(10)
+    }
+    condition shouldBe true
+  }
+
+  "A caching preferences store" should {
+    "serve repeated reads from memory" in {
+      withNode { node =>
+        var storeHits, storeMisses = 0
+        val metrics = new LicenseManagementMetrics {
+          override def storeCacheHit(): Unit = storeHits += 1
+          override def storeCacheMiss(): Unit = storeMisses += 1
+        }
+        val store = new CachingPreferencesStore(node, "key", Long.MaxValue, metrics)
+        store.exists shouldBe false
+        store content "foo".getBytes(UTF_8)
+        new String(store.content(), UTF_8) shouldBe "foo"
+        new String(store.content(), UTF_8) shouldBe "foo"
+        store.size.getAsLong shouldBe 3
+        store.hits shouldBe 2
+        store.misses shouldBe 2
+        storeHits shouldBe 2
+        storeMisses shouldBe 2
+      }
+    }
+
+    "invalidate the cached content when writing or deleting it" in {
+      withNode { node =>
+        val store = new CachingPreferencesStore(node, "key", Long.MaxValue, LicenseManagementMetrics.NONE)
+        store content "foo".getBytes(UTF_8)
+        new String(store.content(), UTF_8) shouldBe "foo"
+        store.output.accept(_.write("bar".getBytes(UTF_8)))
+        new String(store.content(), UTF_8) shouldBe "bar"
+        store.delete()
+        store.exists shouldBe false
+        intercept[NoContentException](store.content())
+      }
+    }
+
+    "invalidate the cached content when the preference changes" in {
+      withNode { node =>
+        val store = new CachingPreferencesStore(node, "key", Long.MaxValue, LicenseManagementMetrics.NONE)
+        store content "foo".getBytes(UTF_8)
+        new String(store.content(), UTF_8) shouldBe "foo"
+        node.putByteArray("key", "bar".getBytes(UTF_8))
+        eventually(new String(store.content(), UTF_8) == "bar")
+      }
+    }
+
+    "share a single listener per preferences node" in {
+      withNode { node =>
+        val listener = CachingPreferencesStore listener node
+        val size = listener.size
+        val stores = List.fill(2)(new CachingPreferencesStore(node, "key", Long.MaxValue, LicenseManagementMetrics.NONE))
+        val other = new CachingPreferencesStore(node, "other", Long.MaxValue, LicenseManagementMetrics.NONE)
+        CachingPreferencesStore listener node should be theSameInstanceAs listener
+        listener.size shouldBe size + 3
+        stores.foreach(_ content "foo".getBytes(UTF_8))
+        stores.foreach(store => new String(store.content(), UTF_8) shouldBe "foo")
+        node.putByteArray("key", "bar".getBytes(UTF_8))
+        stores.foreach(store => eventually(new String(store.content(), UTF_8) == "bar"))
+      }
+    }
+
+    "not cache the content if the cache period is zero" in {
+      withNode { node =>
+        val store = new CachingPreferencesStore(node, "key", 0, LicenseManagementMetrics.NONE)
+        store content "foo".getBytes(UTF_8)
+        store.content()
+        store.content()
+        store.hits shouldBe 0
+        store.misses shouldBe 2
+      }
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package global.namespace.truelicense.core
+
+import global.namespace.fun.io.api.{ContentTooLargeException, Filter, Socket, Store}
+import global.namespace.fun.io.bios.BIOS.{copy, deflate, memory}
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.{FilterOutputStream, IOException, InputStream, OutputStream}
+import java.nio.file.attribute.PosixFilePermissions
+import java.nio.file.{FileSystems, Files, Path}
+import scala.util.Random
+
+class FileChannelStoreSpec extends AnyWordSpec {
+
+  private def withTempPath(test: Path => Any): Unit = {
+    val path = Files.createTempFile(null, null)
+    try {
+      Files delete path
+      test(path)
+    } finally {
+      Files deleteIfExists path
+    }
+  }
+
+  private def tempFiles(path: Path) = {
+    Files.list(path.getParent).filter(_.getFileName.toString.startsWith("." + path.getFileName)).count
+  }
+
+  private def bytes(size: Int) = {
+    val b = new Array[Byte](size)
+    new Random(size).nextBytes(b)
+    b
+  }
+
+  // Fails when closing the stream, i.e. after the content has been written.
+  private object FailingFilter extends Filter {
+
+    def output(output: Socket[OutputStream]): Socket[OutputStream] = {
+      output map { out: OutputStream =>
+        new FilterOutputStream(out) {
+          override def close(): Unit = {
+            super.close()
+            throw new IOException
+          }
+        }: OutputStream
+      }
+    }
+
+    def input(input: Socket[InputStream]): Socket[InputStream] = input
+  }
+
+  private def memoryWith(content: Array[Byte]): Store = {
+    val store = memory
+    store content content
+    store
+  }
+
+  "A file channel store" should {
+    "read and write small and large files" in {
+      for (size <- Seq(0, 1, 1000, 1024 * 1024)) {
+        withTempPath { path =>
+          val store = new FileChannelStore(path, 1024 * 1024)
+          store.exists shouldBe false
+          store.size.isPresent shouldBe false
+          val content = bytes(size)
+          copy(memoryWith(content), store)
+          store.size.getAsLong shouldBe size
+          store.content() shouldBe content
+          val copied: Store = memory
+          copy(store, copied)
+          copied.content() shouldBe content
+          store.delete()
+          store.exists shouldBe false
+        }
+      }
+    }
+
+    "support marking and resetting input streams" in {
+      withTempPath { path =>
+        val store = new FileChannelStore(path, 100)
+        store content Array[Byte](1, 2, 3)
+        store.input.accept { in: InputStream =>
+          in.markSupported shouldBe true
+          in.mark(1)
+          in.read shouldBe 1
+          in.reset()
+          in.read shouldBe 1
+          in.available shouldBe 2
+          in.skip(10) shouldBe 2
+          in.read shouldBe -1
+        }
+      }
+    }
+
+    "reject reading an oversized file" in {
+      withTempPath { path =>
+        Files.write(path, bytes(101))
+        val store = new FileChannelStore(path, 100)
+        intercept[ContentTooLargeException](store.content())
+        intercept[ContentTooLargeException](store.input.accept { _: InputStream => () })
+        intercept[ContentTooLargeException](new FileChannelStore(path, 1000).content(100))
+      }
+    }
+
+    "reject writing an oversized file" in {
+      withTempPath { path =>
+        val store = new FileChannelStore(path, 100)
+        intercept[ContentTooLargeException](store content bytes(101))
+        store.exists shouldBe false
+        intercept[ContentTooLargeException](copy(memoryWith(bytes(101)), store))
+        store.exists shouldBe false
+      }
+    }
+
+    "leave an existing file unchanged when writing fails" in {
+      withTempPath { path =>
+        val store = new FileChannelStore(path, 100)
+        val content = bytes(100)
+        store content content
+        intercept[ContentTooLargeException](store content bytes(101))
+        intercept[ContentTooLargeException](copy(memoryWith(bytes(101)), store))
+        store.content() shouldBe content
+        tempFiles(path) shouldBe 0
+      }
+    }
+
+    "leave an existing file unchanged when an outer layer fails midway" in {
+      withTempPath { path =>
+        val store = new FileChannelStore(path, 100)
+        val content = bytes(100)
+        store content content
+        def fail(out: OutputStream): Unit = {
+          out write bytes(10)
+          throw new IOException
+        }
+        intercept[IOException](store.output.accept(fail _))
+        intercept[IOException](store.output.map(identity[OutputStream]).accept(fail _))
+        intercept[IOException](store.map(deflate).output.accept(fail _))
+        intercept[IOException](copy(memoryWith(bytes(10)), store.map(deflate).map(FailingFilter)))
+        store.content() shouldBe content
+        tempFiles(path) shouldBe 0
+      }
+    }
+
+    "replace the file a symbolic link points to and retain its permissions" in {
+      assume(FileSystems.getDefault.supportedFileAttributeViews contains "posix")
+      withTempPath { path =>
+        val link = path.resolveSibling(path.getFileName + ".link")
+        try {
+          Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")))
+          Files.createSymbolicLink(link, path.getFileName)
+          val store = new FileChannelStore(link, 100)
+          val content = bytes(100)
+          store content content
+          Files.isSymbolicLink(link) shouldBe true
+          Files.readAllBytes(path) shouldBe content
+          PosixFilePermissions.toString(Files.getPosixFilePermissions(path)) shouldBe "rw-------"
+          tempFiles(path) shouldBe 0
+        } finally {
+          Files deleteIfExists link
+        }
+      }
+    }
+  }
+}
@@ -1,14 +1,17 @@
 package global.namespace.truelicense.core
 
-import global.namespace.fun.io.api.Filter
+import global.namespace.fun.io.api.{Filter, Socket}
 import global.namespace.fun.io.bios.BIOS._
-import global.namespace.truelicense.core.Filters.compressionAndEncryption
+import global.namespace.truelicense.api.LicenseManagementMetrics
+import global.namespace.truelicense.core.Filters.{compressionAndEncryption, swappedCompressionAndEncryption}
 import global.namespace.truelicense.core.FiltersSpec._
 import org.scalatest.matchers.should.Matchers._
 import org.scalatest.prop.TableDrivenPropertyChecks._
 import org.scalatest.wordspec.AnyWordSpec
 
+import java.io.{InputStream, OutputStream}
 import java.security.SecureRandom
+import java.util.concurrent.atomic.AtomicBoolean
 import javax.crypto.Cipher.{DECRYPT_MODE, ENCRYPT_MODE}
 import javax.crypto.spec.{PBEKeySpec, PBEParameterSpec}
 import javax.crypto.{Cipher, SecretKeyFactory}
@@ -34,6 +37,66 @@ class FiltersSpec extends AnyWordSpec {
         new String((store map right).content) shouldBe Message
       }
     }
+
+    "remember reading some data which has been processed in the wrong order when writing" in {
+      forAll(Tests) { (compression, encryption) =>
+        var fallbacks = 0
+        val metrics = new LicenseManagementMetrics {
+          override def filterOrderFallback(): Unit = fallbacks += 1
+        }
+        val swapped = new AtomicBoolean
+        val counting = new CountingFilter(encryption)
+        val wrong = swappedCompressionAndEncryption(compression, encryption)
+        val right = compressionAndEncryption(compression, counting, metrics, swapped)
+        val store = memory
+        store map right content Message.getBytes
+        new String((store map right).content) shouldBe Message
+        (fallbacks, swapped.get, counting.inputs) shouldBe ((0, false, 1))
+        store map wrong content Message.getBytes
+        new String((store map right).content) shouldBe Message
+        (fallbacks, swapped.get, counting.inputs) shouldBe ((1, true, 3))
+        new String((store map right).content) shouldBe Message
+        (fallbacks, swapped.get, counting.inputs) shouldBe ((2, true, 4))
+        store map right content Message.getBytes
+        new String((store map right).content) shouldBe Message
+        (fallbacks, swapped.get, counting.inputs) shouldBe ((2, false, 6))
+      }
+    }
+
+    "only fall back to the original order upon an I/O exception" in {
+      forAll(Tests) { (compression, encryption) =>
+        val swapped = new AtomicBoolean(true)
+        val failing = new Filter {
+          var failed = false
+          def output(output: Socket[OutputStream]): Socket[OutputStream] = encryption output output
+          def input(input: Socket[InputStream]): Socket[InputStream] = {
+            encryption input input map { in =>
+              if (!failed) {
+                failed = true
+                throw new IllegalStateException
+              }
+              in
+            }
+          }
+        }
+        val filter = compressionAndEncryption(compression, failing, LicenseManagementMetrics.NONE, swapped)
+        val store = memory
+        store map compressionAndEncryption(compression, encryption) content Message.getBytes
+        intercept[IllegalStateException]((store map filter).content)
+        swapped.get shouldBe true
+      }
+    }
+
+    "not try to decrypt corrupted data twice" in {
+      forAll(Tests) { (compression, encryption) =>
+        val counting = new CountingFilter(encryption)
+        val filter = compressionAndEncryption(compression, counting, LicenseManagementMetrics.NONE, new AtomicBoolean)
+        val store = memory
+        store content Message.getBytes
+        intercept[Exception]((store map filter).content)
+        counting.inputs shouldBe 1
+      }
+    }
   }
 }
 
@@ -62,6 +125,18 @@ private object FiltersSpec {
     }
   }
 
+  private class CountingFilter(filter: Filter) extends Filter {
+
+    var inputs = 0
+
+    def output(output: Socket[OutputStream]): Socket[OutputStream] = filter output output
+
+    def input(input: Socket[InputStream]): Socket[InputStream] = {
+      inputs += 1
+      filter input input
+    }
+  }
+
   private val Tests = Table(
     ("compression", "encryption"),
     (deflate, PBE),
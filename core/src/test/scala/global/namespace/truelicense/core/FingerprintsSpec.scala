@@ -0,0 +1,39 @@
+package global.namespace.truelicense.core
+
+import global.namespace.fun.io.bios.BIOS.memory
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Files
+
+class FingerprintsSpec extends AnyWordSpec {
+
+  "The fingerprint of the metadata of a file" should {
+    "change when the file changes" in {
+      val path = Files.createTempFile(null, null)
+      try {
+        Files.write(path, "foo".getBytes(UTF_8))
+        val fingerprint = Fingerprints metadata path
+        Fingerprints metadata path shouldBe fingerprint
+        Files.write(path, "foobar".getBytes(UTF_8))
+        Fingerprints metadata path should not be fingerprint
+        Files delete path
+        Fingerprints metadata path should not be Fingerprints.metadata(path)
+      } finally {
+        Files deleteIfExists path
+      }
+    }
+  }
+
+  "The fingerprint of the content of a source" should {
+    "change when the content changes" in {
+      val store = memory
+      store content "foo".getBytes(UTF_8)
+      val fingerprint = Fingerprints content store
+      Fingerprints content store shouldBe fingerprint
+      store content "bar".getBytes(UTF_8)
+      Fingerprints content store should not be fingerprint
+    }
+  }
+}
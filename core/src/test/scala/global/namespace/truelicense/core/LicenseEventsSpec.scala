@@ -0,0 +1,87 @@
+package global.namespace.truelicense.core
+
+import global.namespace.fun.io.api.Source
+import global.namespace.truelicense.api.LicenseEventType._
+import global.namespace.truelicense.api._
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.time.Clock
+import java.util.Date
+import java.util.concurrent.{LinkedBlockingQueue, TimeUnit}
+
+class LicenseEventsSpec extends AnyWordSpec {
+
+  private object manager extends ConsumerLicenseManager {
+    def install(source: Source): Unit = ()
+    def load(): License = throw new LicenseManagementException
+    def verify(): Unit = ()
+    def uninstall(): Unit = ()
+    def parameters(): LicenseManagerParameters = throw new UnsupportedOperationException
+  }
+
+  private def snapshot(notBefore: Option[Long], notAfter: Option[Long]): LicenseSnapshot = {
+    val bean = new AbstractLicense {}
+    notBefore foreach (millis => bean setNotBefore new Date(millis))
+    notAfter foreach (millis => bean setNotAfter new Date(millis))
+    LicenseSnapshot of bean
+  }
+
+  "License events" should {
+    "compute the next instant when the phase of a license may change" in {
+      val license = snapshot(Some(1000), Some(2000))
+      LicenseEvents.next(license, 0, 0) shouldBe 1000
+      LicenseEvents.next(license, 1000, 0) shouldBe 2001
+      LicenseEvents.next(license, 1000, 500) shouldBe 1500
+      LicenseEvents.next(license, 1500, 500) shouldBe 2001
+      LicenseEvents.next(license, 2001, 500) shouldBe Long.MaxValue
+      LicenseEvents.next(snapshot(None, None), 0, 500) shouldBe Long.MaxValue
+      LicenseEvents.next(snapshot(None, Some(Long.MinValue + 1)), Long.MinValue, 500) shouldBe Long.MinValue + 2
+    }
+
+    "compute the phase of a license" in {
+      import LicenseEvents.Phase
+      val license = snapshot(Some(1000), Some(2000))
+      Phase.at(license, 999, 500) shouldBe Phase.notYetValid
+      Phase.at(license, 1000, 500) shouldBe Phase.valid
+      Phase.at(license, 1500, 500) shouldBe Phase.expiringSoon
+      Phase.at(license, 2000, 500) shouldBe Phase.expiringSoon
+      Phase.at(license, 2000, 0) shouldBe Phase.valid
+      Phase.at(license, 2001, 500) shouldBe Phase.expired
+      Phase.at(snapshot(None, None), Long.MaxValue, 500) shouldBe Phase.valid
+    }
+
+    "publish the life cycle of a license" in {
+      val events = new LicenseEvents(manager, Clock.systemUTC, 200)
+      val queue = new LinkedBlockingQueue[LicenseEvent]
+      def next() = Option(queue.poll(5, TimeUnit.SECONDS)).map(_.`type`).orNull
+      events add (queue add _)
+      events add (_ => throw new IllegalStateException)
+      val now = System.currentTimeMillis
+      val license = snapshot(Some(now + 100), Some(now + 400))
+      events seen license
+      events seen license
+      next() shouldBe installed
+      next() shouldBe becameValid
+      next() shouldBe expiringSoon
+      next() shouldBe expired
+      events.uninstalled()
+      next() shouldBe uninstalled
+      queue shouldBe empty
+    }
+
+    "catch up with a phase change which happened while there were no listeners" in {
+      val events = new LicenseEvents(manager, Clock.systemUTC, 0)
+      events.hasListeners shouldBe false
+      events seen snapshot(None, Some(System.currentTimeMillis + 100))
+      Thread.sleep(200)
+      val queue = new LinkedBlockingQueue[LicenseEvent]
+      val listener: LicenseListener = queue add _
+      events add listener
+      Option(queue.poll(5, TimeUnit.SECONDS)).map(_.`type`) shouldBe Some(expired)
+      events remove listener
+      events.uninstalled()
+      queue shouldBe empty
+    }
+  }
+}
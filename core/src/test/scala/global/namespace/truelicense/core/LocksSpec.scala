@@ -0,0 +1,46 @@
+package global.namespace.truelicense.core
+
+import global.namespace.fun.io.bios.BIOS.memory
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.concurrent.locks.ReentrantLock
+
+class LocksSpec extends AnyWordSpec {
+
+  "The locks" should {
+    "select the same lock for the same object" in {
+      val store = memory
+      Locks.lock(store) should be theSameInstanceAs Locks.lock(store)
+    }
+
+    "be reentrant" in {
+      val lock = Locks.lock(memory)
+      lock.lock()
+      try {
+        lock.tryLock() shouldBe true
+        lock.asInstanceOf[ReentrantLock].getHoldCount shouldBe 2
+        lock.unlock()
+      } finally {
+        lock.unlock()
+      }
+    }
+
+    "tell if the current thread holds the lock for an object" in {
+      val store = memory
+      Locks heldByCurrentThread store shouldBe false
+      val lock = Locks lock store
+      lock.lock()
+      try {
+        Locks heldByCurrentThread store shouldBe true
+      } finally {
+        lock.unlock()
+      }
+      Locks heldByCurrentThread store shouldBe false
+    }
+
+    "stripe the locks for different objects" in {
+      Seq.fill(1000)(Locks.lock(new AnyRef)).distinct.size should be > 1
+    }
+  }
+}
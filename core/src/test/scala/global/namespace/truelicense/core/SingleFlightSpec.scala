@@ -0,0 +1,112 @@
+package global.namespace.truelicense.core
+
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.{Callable, CompletableFuture, CompletionException, CountDownLatch, Executors, TimeUnit}
+import java.util.function.Supplier
+
+class SingleFlightSpec extends AnyWordSpec {
+
+  "A single flight" should {
+    "coalesce concurrent calls for the same key" in {
+      val flight = new SingleFlight[String, Integer]
+      val calls = new AtomicInteger
+      val started = new CountDownLatch(1)
+      val release = new CountDownLatch(1)
+      val executor = Executors.newFixedThreadPool(4)
+      try {
+        val leader = executor.submit(new Callable[Integer] {
+          def call(): Integer = flight.call("key", () => {
+            started.countDown()
+            release.await()
+            calls.incrementAndGet()
+          })
+        })
+        started.await()
+        val followers = Seq.fill(3)(executor.submit(new Callable[Integer] {
+          def call(): Integer = flight.call("key", () => calls.incrementAndGet())
+        }))
+        Thread.sleep(100)
+        release.countDown()
+        (leader +: followers).map(_.get(5, TimeUnit.SECONDS).intValue) shouldBe Seq(1, 1, 1, 1)
+        calls.get shouldBe 1
+      } finally {
+        executor.shutdownNow()
+      }
+    }
+
+    "share the exception of the computation in flight" in {
+      val flight = new SingleFlight[String, Integer]
+      val started = new CountDownLatch(1)
+      val release = new CountDownLatch(1)
+      val executor = Executors.newFixedThreadPool(2)
+      try {
+        val leader = executor.submit(new Callable[Integer] {
+          def call(): Integer = flight.call("key", () => {
+            started.countDown()
+            release.await()
+            throw new IllegalStateException("boom")
+          })
+        })
+        started.await()
+        val follower = executor.submit(new Callable[Integer] {
+          def call(): Integer = flight.call("key", () => 0)
+        })
+        Thread.sleep(100)
+        release.countDown()
+        for (future <- Seq(leader, follower)) {
+          val e = intercept[java.util.concurrent.ExecutionException](future.get(5, TimeUnit.SECONDS))
+          e.getCause shouldBe an[IllegalStateException]
+          e.getCause.getMessage shouldBe "boom"
+        }
+      } finally {
+        executor.shutdownNow()
+      }
+    }
+
+    "forget the outcome when the computation completes" in {
+      val flight = new SingleFlight[String, Integer]
+      val calls = new AtomicInteger
+      flight.call("key", () => calls.incrementAndGet()) shouldBe 1
+      flight.call("key", () => calls.incrementAndGet()) shouldBe 2
+      intercept[IllegalStateException](flight.call("key", () => throw new IllegalStateException))
+      flight.call("key", () => calls.incrementAndGet()) shouldBe 3
+    }
+
+    "coalesce concurrent asynchronous calls for the same key" in {
+      val flight = new SingleFlight[String, Integer]
+      val calls = new AtomicInteger
+      val promise = new CompletableFuture[Integer]
+      val computation: Supplier[CompletableFuture[Integer]] = () => {
+        calls.incrementAndGet()
+        promise
+      }
+      val first = flight.callAsync("key", computation)
+      val second = flight.callAsync("key", computation)
+      first should not be theSameInstanceAs(second)
+      second.cancel(false)
+      promise.complete(1)
+      first.join shouldBe 1
+      calls.get shouldBe 1
+      flight.callAsync("key", () => CompletableFuture.completedFuture(2)).join shouldBe 2
+    }
+
+    "share the exception of the asynchronous computation in flight" in {
+      val flight = new SingleFlight[String, Integer]
+      val promise = new CompletableFuture[Integer]
+      val first = flight.callAsync("key", () => promise)
+      val second = flight.callAsync("key", () => CompletableFuture.completedFuture(0))
+      promise.completeExceptionally(new IllegalStateException("boom"))
+      for (future <- Seq(first, second)) {
+        intercept[CompletionException](future.join).getCause shouldBe an[IllegalStateException]
+      }
+    }
+
+    "not coalesce calls for different keys" in {
+      val flight = new SingleFlight[String, String]
+      flight.call("a", () => flight.call("b", () => "b") + "a") shouldBe "ba"
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package global.namespace.truelicense.core
+
+import global.namespace.fun.io.api.{Filter, Socket}
+import global.namespace.fun.io.bios.BIOS._
+import global.namespace.truelicense.api.LicenseManagementStage._
+import global.namespace.truelicense.api.{LicenseManagementMetrics, LicenseManagementStage}
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.{IOException, InputStream, OutputStream}
+import scala.collection.mutable
+
+class StageTimerSpec extends AnyWordSpec {
+
+  "A stage timer" should {
+    "record the time spent in each stage exclusive of any nested stage" in {
+      val timings = mutable.Map.empty[LicenseManagementStage, Long]
+      val metrics = new LicenseManagementMetrics {
+        override def timing(stage: LicenseManagementStage, durationNanos: Long): Unit = {
+          timings(stage) = timings.getOrElse(stage, 0L) + durationNanos
+        }
+      }
+      val store = memory
+      store map gzip content "Hello world!".getBytes
+
+      val timer = new StageTimer(decoding)
+      val slow: Filter = new Filter {
+        def output(output: Socket[OutputStream]): Socket[OutputStream] = output
+        def input(input: Socket[InputStream]): Socket[InputStream] = input.map { in =>
+          Thread.sleep(10)
+          in
+        }
+      }
+      val filter = timer.filter(decompression, gzip) compose timer.filter(decryption, slow)
+      new String((store map filter).content) shouldBe "Hello world!"
+      timer stop metrics
+
+      timings.keySet shouldBe Set(decoding, decompression, decryption)
+      timings(decryption) should be >= 10L * 1000 * 1000
+      timings(decompression) should be < timings(decryption)
+    }
+
+    "leave the stages of a filter which fails to open" in {
+      val timings = mutable.Map.empty[LicenseManagementStage, Long]
+      val metrics = new LicenseManagementMetrics {
+        override def timing(stage: LicenseManagementStage, durationNanos: Long): Unit = {
+          timings(stage) = timings.getOrElse(stage, 0L) + durationNanos
+        }
+      }
+      val store = memory
+      store content "Hello world!".getBytes
+
+      val timer = new StageTimer(decoding)
+      val failing: Filter = new Filter {
+        def output(output: Socket[OutputStream]): Socket[OutputStream] = output
+        def input(input: Socket[InputStream]): Socket[InputStream] = input.map { _ => throw new IOException }
+      }
+      val filter = timer.filter(decompression, gzip) compose timer.filter(decryption, failing)
+      intercept[IOException]((store map filter).content)
+      Thread.sleep(10)
+      timer stop metrics
+
+      timings(decoding) should be >= 10L * 1000 * 1000
+      timings.getOrElse(decryption, 0L) should be < timings(decoding)
+    }
+
+    "time a task" in {
+      var recorded = Option.empty[LicenseManagementStage]
+      val metrics = new LicenseManagementMetrics {
+        override def timing(stage: LicenseManagementStage, durationNanos: Long): Unit = recorded = Some(stage)
+      }
+      StageTimer.time(metrics, validation, () => "foo") shouldBe "foo"
+      recorded shouldBe Some(validation)
+    }
+  }
+}
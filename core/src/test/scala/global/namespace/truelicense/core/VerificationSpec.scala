@@ -0,0 +1,52 @@
+package global.namespace.truelicense.core
+
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.time.Clock
+
+class VerificationSpec extends AnyWordSpec {
+
+  private val clock = Clock.systemUTC
+
+  private def now = System.currentTimeMillis
+
+  "A verification" should {
+    "never be current if it's none" in {
+      Verification.NONE.current shouldBe false
+    }
+
+    "be current until the cache expires" in {
+      val verification = Verification.until(now + 100, Long.MaxValue, clock, null)
+      verification.current shouldBe true
+      Thread.sleep(200)
+      verification.current shouldBe false
+    }
+
+    "be current until the license expires" in {
+      val verification = Verification.until(Long.MaxValue, now + 100, clock, null)
+      verification.current shouldBe true
+      Thread.sleep(200)
+      verification.current shouldBe false
+    }
+
+    "not be current if the cache or the license has already expired" in {
+      Verification.until(Long.MinValue, Long.MaxValue, clock, null).current shouldBe false
+      Verification.until(now - 1, Long.MaxValue, clock, null).current shouldBe false
+      Verification.until(Long.MaxValue, now - 1, clock, null).current shouldBe false
+      Verification.until(Long.MaxValue, Long.MinValue, clock, null).current shouldBe false
+    }
+
+    "be current forever if neither the cache nor the license expires" in {
+      Verification.until(Long.MaxValue, Long.MaxValue, clock, null).current shouldBe true
+      Verification.until(Long.MaxValue, Long.MaxValue - 1, clock, null).current shouldBe true
+    }
+
+    "match the fingerprint of the store" in {
+      val verification = Verification.until(Long.MaxValue, Long.MaxValue, clock, "foo")
+      verification matches "foo" shouldBe true
+      verification matches "bar" shouldBe false
+      verification matches null shouldBe false
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package global.namespace.truelicense.core.crypto
+
+import global.namespace.truelicense.api.crypto.EncryptionParameters
+import global.namespace.truelicense.api.passwd.{Password, PasswordProtection, PasswordUsage}
+import global.namespace.truelicense.api.passwd.PasswordUsage.{DECRYPTION, ENCRYPTION}
+import global.namespace.truelicense.core.crypto.EncryptionMixinSpec._
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.Arrays
+
+class EncryptionMixinSpec extends AnyWordSpec {
+
+  "An encryption mixin" should {
+    "derive a key only once until it gets closed" in {
+      val mixin = new CountingEncryptionMixin
+      val salt = Array[Byte](1, 2, 3, 4, 5, 6, 7, 8)
+      val key = mixin.derive(DECRYPTION, salt, 1000)
+      mixin.derive(DECRYPTION, salt, 1000) shouldBe key
+      mixin.derivations shouldBe 1
+      mixin.close()
+      mixin.derive(DECRYPTION, salt, 1000) shouldBe key
+      mixin.derivations shouldBe 2
+    }
+
+    "derive a key for each usage, salt and iteration count" in {
+      val mixin = new CountingEncryptionMixin
+      val salt = Array[Byte](1, 2, 3, 4, 5, 6, 7, 8)
+      mixin.derive(DECRYPTION, salt, 1000)
+      mixin.derive(ENCRYPTION, salt, 1000)
+      mixin.derive(DECRYPTION, salt.reverse, 1000)
+      mixin.derive(DECRYPTION, salt, 2000)
+      mixin.derivations shouldBe 4
+      mixin.derive(DECRYPTION, salt, 1000)
+      mixin.derivations shouldBe 4
+    }
+
+    "return a copy of a cached key" in {
+      val mixin = new CountingEncryptionMixin
+      val salt = Array[Byte](1, 2, 3, 4, 5, 6, 7, 8)
+      val key = mixin.derive(DECRYPTION, salt, 1000)
+      val copy = key.clone
+      Arrays.fill(key, 0: Byte)
+      mixin.derive(DECRYPTION, salt, 1000) shouldBe copy
+      mixin.derivations shouldBe 1
+    }
+  }
+}
+
+private object EncryptionMixinSpec {
+
+  private val Protection: PasswordProtection = _ => new Password {
+
+    val characters: Array[Char] = "test1234".toCharArray
+
+    def close(): Unit = Arrays.fill(characters, 0: Char)
+  }
+
+  private val Parameters: EncryptionParameters = new EncryptionParameters {
+
+    def algorithm: String = "PBEWithSHA1AndDESede"
+
+    def protection: PasswordProtection = Protection
+
+    override def keyCaching: Boolean = true
+  }
+
+  private class CountingEncryptionMixin extends EncryptionMixin(Parameters) {
+
+    var derivations = 0
+
+    def derive(usage: PasswordUsage, salt: Array[Byte], iterationCount: Int): Array[Byte] = {
+      derivedKey(usage, salt, iterationCount, { (password, salt, iterationCount) =>
+        derivations += 1
+        password ++ salt :+ iterationCount.toByte
+      })
+    }
+  }
+}
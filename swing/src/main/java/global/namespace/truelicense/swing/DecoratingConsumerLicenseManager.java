@@ -9,6 +9,7 @@ import global.namespace.truelicense.api.ConsumerLicenseManager;
 import global.namespace.truelicense.api.License;
 import global.namespace.truelicense.api.LicenseManagementException;
 import global.namespace.truelicense.api.LicenseManagerParameters;
+import global.namespace.truelicense.api.LicenseSnapshot;
 
 /**
  * A decorator for a consumer license manager.
@@ -35,9 +36,15 @@ abstract class DecoratingConsumerLicenseManager implements ConsumerLicenseManage
     @Override
     public License load() throws LicenseManagementException { return manager.load(); }
 
+    @Override
+    public LicenseSnapshot loadSnapshot() throws LicenseManagementException { return manager.loadSnapshot(); }
+
     @Override
     public void verify() throws LicenseManagementException { manager.verify(); }
 
     @Override
     public void uninstall() throws LicenseManagementException { manager.uninstall(); }
+
+    @Override
+    public void close() { manager.close(); }
 }
@@ -0,0 +1,11 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.core
+
+/** Exposes the package-private striped locks to the integration tests. */
+object LocksTestSupport {
+
+  def heldByCurrentThread(store: AnyRef): Boolean = Locks heldByCurrentThread store
+}
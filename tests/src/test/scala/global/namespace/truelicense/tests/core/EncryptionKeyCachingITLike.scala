@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.core
+
+import global.namespace.fun.io.bios.BIOS.memory
+import global.namespace.truelicense.api.crypto.{Encryption, EncryptionFactory, EncryptionParameters}
+import global.namespace.truelicense.api.passwd.PasswordProtection
+import global.namespace.truelicense.tests.core.TestContext.test1234
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.util.concurrent.{CompletableFuture, ForkJoinPool}
+import java.util.function.Supplier
+
+trait EncryptionKeyCachingITLike extends AnyWordSpecLike {
+  this: TestContext =>
+
+  protected def encryptionAlgorithm: String
+
+  private def encryption(caching: Boolean): Encryption = {
+    managementContext.asInstanceOf[EncryptionFactory] encryption new EncryptionParameters {
+
+      def algorithm: String = encryptionAlgorithm
+
+      def protection: PasswordProtection = test1234
+
+      override def keyCaching: Boolean = caching
+    }
+  }
+
+  "An encryption with key caching" should {
+    "be compatible with an encryption without key caching" in {
+      val data = "Hello, world!".getBytes("UTF-8")
+      val caching = encryption(caching = true)
+      val uncached = encryption(caching = false)
+      for ((encrypter, decrypter) <- Seq(caching -> uncached, uncached -> caching, caching -> caching, caching -> caching)) {
+        val store = memory
+        store map encrypter content data
+        (store map decrypter).content shouldBe data
+      }
+      caching.close()
+      val store = memory
+      store map caching content data
+      (store map uncached).content shouldBe data
+    }
+
+    "concurrently decrypt more data than it caches keys for" in {
+      val data = "Hello, world!".getBytes("UTF-8")
+      val caching = encryption(caching = true)
+      val uncached = encryption(caching = false)
+      val stores = Seq.fill(40) {
+        val store = memory
+        store map uncached content data
+        store
+      }
+      val futures = for (_ <- 1 to 2; store <- stores) yield {
+        CompletableFuture.supplyAsync(new Supplier[Array[Byte]] {
+          def get: Array[Byte] = (store map caching).content
+        }, ForkJoinPool.commonPool)
+      }
+      futures foreach (_.join shouldBe data)
+    }
+  }
+}
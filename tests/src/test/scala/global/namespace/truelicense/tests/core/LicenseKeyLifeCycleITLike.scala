@@ -4,15 +4,24 @@
  */
 package global.namespace.truelicense.tests.core
 
-import global.namespace.fun.io.bios.BIOS.memory
-import global.namespace.truelicense.api.{ConsumerLicenseManager, License, LicenseManagementException}
+import global.namespace.fun.io.api.{Source, Store}
+import global.namespace.fun.io.bios.BIOS.{deflate, memory}
+import global.namespace.truelicense.api._
+import global.namespace.truelicense.core.{LicenseKeyMigration, LocksTestSupport}
 import global.namespace.truelicense.tests.core.LicenseKeyLifeCycleITLike.logger
+import global.namespace.truelicense.tests.core.TestContext.test1234
+import org.scalatest.concurrent.Eventually._
 import org.scalatest.matchers.should.Matchers._
+import org.scalatest.time.SpanSugar._
 import org.scalatest.wordspec.AnyWordSpecLike
 import org.slf4j.LoggerFactory
 
+import java.nio.file.{Files, StandardCopyOption}
 import java.util.Calendar.{DATE, getInstance}
-import java.util.Date
+import java.util.{Date, UUID}
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.{CompletionException, ConcurrentHashMap, ConcurrentLinkedQueue, Executors, ForkJoinPool, TimeUnit}
+import scala.jdk.CollectionConverters._
 
 trait LicenseKeyLifeCycleITLike extends AnyWordSpecLike {
   this: TestContext =>
@@ -44,6 +53,352 @@ trait LicenseKeyLifeCycleITLike extends AnyWordSpecLike {
       }
     }
 
+    "cover batches of license keys" in new State {
+      {
+        val beans = Seq.fill(3)(licenseBean)
+        val stores = beans.map(_ => memory)
+        val sinks = stores.iterator // the function is called in the order of the beans
+        val generated = vendorManager.generateKeysFrom(beans.asJava, _ => sinks.next(), ForkJoinPool.commonPool).asScala
+        generated should have size beans.size
+        generated foreach assertLicenseBean
+        for ((store, license) <- stores zip generated) {
+          consumerManager install store
+          consumerManager.load() shouldBe license
+        }
+        consumerManager.uninstall()
+        assertUninstalled(consumerManager)
+      }
+    }
+
+    "cancel the outstanding license keys of a batch when generating any of them fails" in new State {
+      {
+        val invalid = licenseBean
+        invalid setSubject "foo"
+        val beans = invalid +: Seq.fill(9)(licenseBean)
+        val stores = beans.map(_ => memory)
+        val sinks = stores.iterator
+        val executor = Executors.newSingleThreadExecutor
+        try {
+          intercept[LicenseValidationException] {
+            vendorManager.generateKeysFrom(beans.asJava, _ => sinks.next(), executor)
+          }
+          executor.shutdown()
+          executor.awaitTermination(5, TimeUnit.SECONDS) shouldBe true
+          stores.count(_.exists) should be < beans.size - 1
+        } finally {
+          executor.shutdownNow()
+        }
+      }
+    }
+
+    "cover bulk verification of license keys" in new State {
+      {
+        val stores = Seq.fill(3)(memory)
+        val generated = stores map (store => (vendorManager generateKeyFrom licenseBean saveTo store).license)
+        val corrupted = memory
+        corrupted content "garbage".getBytes
+        val futures = consumerManager.verifyKeys((stores :+ corrupted).asJava, ForkJoinPool.commonPool).asScala
+        futures should have size stores.size + 1
+        futures.init.map(_.join) shouldBe generated
+        intercept[CompletionException](futures.last.join).getCause shouldBe a[LicenseManagementException]
+
+        // Cover the default implementation, too:
+        val decorator: ConsumerLicenseManager = new ConsumerLicenseManager {
+          def parameters: LicenseManagerParameters = consumerManager.parameters
+          def install(source: Source): Unit = consumerManager install source
+          def load: License = consumerManager.load
+          def verify(): Unit = consumerManager.verify()
+          def uninstall(): Unit = consumerManager.uninstall()
+        }
+        val defaults = decorator.verifyKeys((stores :+ corrupted).asJava, ForkJoinPool.commonPool).asScala
+        defaults.init.map(_.join) shouldBe generated
+        intercept[CompletionException](defaults.last.join).getCause shouldBe a[LicenseManagementException]
+        assertUninstalled(consumerManager)
+      }
+    }
+
+    "cover license snapshots" in new State {
+      {
+        val tempStore = memory
+        val generated = (vendorManager generateKeyFrom licenseBean saveTo tempStore).license
+        consumerManager install tempStore
+        val snapshot = consumerManager.loadSnapshot()
+        snapshot shouldBe generated
+        generated shouldBe snapshot
+        snapshot.hashCode shouldBe generated.hashCode
+        snapshot.issuedMillis shouldBe generated.getIssued.getTime
+        consumerManager.loadSnapshot() shouldBe theSameInstanceAs(snapshot)
+        intercept[UnsupportedOperationException](snapshot setInfo "foo")
+        consumerManager.verify()
+        consumerManager.uninstall()
+        assertUninstalled(consumerManager)
+      }
+    }
+
+    "cover closing license managers" in new State {
+      {
+        val tempStore = memory
+        vendorManager generateKeyFrom licenseBean saveTo tempStore
+        consumerManager install tempStore
+        consumerManager.verify()
+        vendorManager.close()
+        consumerManager.unchecked.close()
+        val generated = (vendorManager generateKeyFrom licenseBean saveTo tempStore).license
+        consumerManager install tempStore
+        consumerManager.verify()
+        consumerManager.load() shouldBe generated
+        consumerManager.uninstall()
+        consumerManager.close()
+        assertUninstalled(consumerManager)
+      }
+    }
+
+    "cover asynchronous license management" in new State {
+      {
+        val executor = ForkJoinPool.commonPool
+        val tempStore = memory
+        val generated = vendorManager.async(executor).generateKeyFrom(licenseBean, tempStore).join
+        assertLicenseBean(generated)
+        val asyncManager = consumerManager async executor
+        asyncManager.install(tempStore).join
+        val verifications = Seq.fill(3)(asyncManager.verify())
+        verifications foreach (_.join)
+        asyncManager.loadSnapshot().join shouldBe generated
+        asyncManager.load().join shouldBe generated
+        asyncManager.uninstall().join
+        intercept[CompletionException](asyncManager.verify().join).getCause shouldBe a[LicenseManagementException]
+        assertUninstalled(consumerManager)
+      }
+    }
+
+    "cover license events" in new State {
+      {
+        val tempStore = memory
+        val generated = (vendorManager generateKeyFrom licenseBean saveTo tempStore).license
+        val events = new ConcurrentLinkedQueue[LicenseEvent]
+        val listener: LicenseListener = events.add(_)
+        val source = consumerManager.asInstanceOf[LicenseEventSource]
+        source addListener listener
+        consumerManager install tempStore
+        consumerManager install tempStore // reinstall
+        consumerManager.verify()
+        consumerManager.uninstall()
+        source removeListener listener
+        consumerManager install tempStore
+        events.asScala.map(_.`type`).toList shouldBe List(
+          LicenseEventType.installed, LicenseEventType.becameValid, LicenseEventType.uninstalled)
+        events.asScala.head.manager shouldBe theSameInstanceAs(consumerManager)
+        events.asScala.head.license.get shouldBe generated
+        events.asScala.last.license.isPresent shouldBe false
+        consumerManager.uninstall()
+        assertUninstalled(consumerManager)
+      }
+    }
+
+    "publish license events once and without holding the lock of the store" in new State {
+      {
+        val tempStore = memory
+        vendorManager generateKeyFrom licenseBean saveTo tempStore
+        val events = new ConcurrentLinkedQueue[(LicenseEventType, Boolean)]
+        def listen(manager: ConsumerLicenseManager, store: Store): Unit = {
+          manager.asInstanceOf[LicenseEventSource] addListener { event =>
+            events add (event.`type` -> LocksTestSupport.heldByCurrentThread(store))
+          }
+        }
+        def drain(): List[(LicenseEventType, Boolean)] = {
+          val list = events.asScala.toList
+          events.clear()
+          list
+        }
+        val published = List(LicenseEventType.installed -> false, LicenseEventType.becameValid -> false)
+
+        // A zero cache period makes install() decode the license key again while holding the lock:
+        val store = memory
+        val cm = newConsumerManager(managementContextBuilder cachePeriodMillis 0, _ storeIn store)
+        listen(cm, store)
+        cm install tempStore
+        drain() shouldBe published
+        cm.verify()
+        cm.loadSnapshot()
+        drain() shouldBe empty
+        cm.uninstall()
+        drain() shouldBe List(LicenseEventType.uninstalled -> false)
+
+        // The FTP manager retries verify() while holding the lock:
+        listen(ftpManager, ftpStore)
+        ftpManager.verify() // generate
+        ftpManager.verify()
+        ftpManager.loadSnapshot()
+        drain() shouldBe published
+      }
+    }
+
+    "report metrics" in new State {
+      {
+        val timings = new ConcurrentHashMap[LicenseManagementStage, java.lang.Long]
+        val hits, misses = new LongAdder
+        val metrics = new LicenseManagementMetrics {
+          override def timing(stage: LicenseManagementStage, durationNanos: Long): Unit = {
+            timings.merge(stage, durationNanos, (a, b) => a + b)
+          }
+          override def cacheHit(): Unit = hits.increment()
+          override def cacheMiss(): Unit = misses.increment()
+        }
+        val cm = newConsumerManager(managementContextBuilder metrics metrics)
+        val tempStore = memory
+        vendorManager generateKeyFrom licenseBean saveTo tempStore
+        cm install tempStore
+        timings.keySet.asScala shouldBe LicenseManagementStage.values.toSet - LicenseManagementStage.validation
+        cm.verify()
+        timings.keySet.asScala shouldBe LicenseManagementStage.values.toSet
+        misses.sum should be > 0L
+        val before = hits.sum
+        cm.verify()
+        hits.sum should be > before
+      }
+    }
+
+    "skip time-independent custom validations until the next relevant instant" in new State {
+      {
+        val tempStore = memory
+        vendorManager generateKeyFrom licenseBean saveTo tempStore
+        for ((independent, expected) <- Seq(false -> 2L, true -> 0L)) {
+          val validations = new LongAdder
+          val validation = new LicenseValidation {
+            override def validate(bean: License): Unit = {
+              // Custom validations get the decoded license bean, not a snapshot:
+              bean.getClass shouldBe managementContext.licenseFactory.licenseClass
+              validations.increment()
+            }
+            override def timeIndependent: Boolean = independent
+          }
+          val cm = newConsumerManager(managementContextBuilder validation validation)
+          cm install tempStore
+          cm.verify()
+          val before = validations.sum
+          cm.verify()
+          cm.verify()
+          validations.sum - before shouldBe expected
+        }
+      }
+    }
+
+    "refresh the cached license key ahead of the end of the cache period until it gets uninstalled" in new State {
+      {
+        val tempStore = memory
+        vendorManager generateKeyFrom licenseBean saveTo tempStore
+        val validations = new LongAdder
+        val cm = newConsumerManager(managementContextBuilder
+          .cachePeriodMillis(1000)
+          .cacheRefreshAheadMillis(900)
+          .validation(_ => validations.increment()))
+        cm install tempStore
+        cm.verify()
+        val before = validations.sum
+        // Refreshing validates the license key again without any further call to verify():
+        eventually(timeout(5.seconds)) {
+          validations.sum should be > before
+        }
+        cm.verify()
+        cm.uninstall()
+        val after = validations.sum
+        Thread.sleep(500)
+        validations.sum shouldBe after
+        assertUninstalled(cm)
+      }
+    }
+
+    "detect an external change to the license key file before the end of the cache period" in new State {
+      {
+        val original = memory
+        vendorManager generateKeyFrom licenseBean saveTo original
+        val changed = memory
+        val changedInfo = Seq.fill(8)(UUID.randomUUID).mkString(", ")
+        vendorManager generateKeyFrom { val bean = licenseBean; bean setInfo changedInfo; bean } saveTo changed
+        for ((invalidation, detected) <- Seq(
+          LicenseCacheInvalidation.timeout -> false,
+          LicenseCacheInvalidation.metadata -> true,
+          LicenseCacheInvalidation.content -> true
+        )) {
+          val dir = Files createTempDirectory "truelicense"
+          val path = dir resolve "license.key"
+          try {
+            val cm = newConsumerManager(
+              managementContextBuilder.cachePeriodMillis(60L * 60 * 1000).cacheInvalidation(invalidation),
+              _ storeInPath path)
+            cm install original
+            cm.verify()
+            cm.loadSnapshot().getInfo shouldBe licenseBean.getInfo
+            // Replace the license key file like another process would do:
+            val temp = dir resolve "license.key.tmp"
+            Files.write(temp, changed.content)
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING)
+            cm.verify()
+            cm.loadSnapshot().getInfo shouldBe (if (detected) changedInfo else licenseBean.getInfo)
+            cm.uninstall()
+          } finally {
+            Files deleteIfExists path
+            Files delete dir
+          }
+        }
+      }
+    }
+
+    "cover license keys generated by TrueLicense 4.0.0 or 4.0.1" in {
+      var fallbacks = 0
+      val metrics = new LicenseManagementMetrics {
+        override def filterOrderFallback(): Unit = fallbacks += 1
+      }
+      val compression = deflate
+      val context = managementContextBuilder
+        .cachePeriodMillis(0)
+        .compression(compression)
+        .metrics(metrics)
+        .subject(managementContext.subject)
+        .build
+      val vm = context.vendor
+        .encryption
+        .protection(test1234)
+        .up
+        .authentication
+        .alias("mykey")
+        .loadFromResource(prefix + "private" + postfix)
+        .storeProtection(test1234)
+        .up
+        .build
+      val store = memory
+      val cm = context.consumer
+        .encryption
+        .protection(test1234)
+        .up
+        .authentication
+        .alias("mykey")
+        .loadFromResource(prefix + "public" + postfix)
+        .storeProtection(test1234)
+        .up
+        .storeIn(store)
+        .build
+      val encryption = cm.parameters.encryption
+
+      val canonical = memory
+      val generated = (vm generateKeyFrom licenseBean saveTo canonical).license
+      val content = (canonical map encryption map compression).content
+      val legacy = memory
+      legacy map compression map encryption content content
+
+      LicenseKeyMigration migrate cm shouldBe false
+      cm install legacy
+      fallbacks should be > 0
+      cm.load() shouldBe generated
+      LicenseKeyMigration migrate cm shouldBe true
+      (store map encryption map compression).content shouldBe content
+      LicenseKeyMigration migrate cm shouldBe false
+      val before = fallbacks
+      cm.load() shouldBe generated
+      cm.verify()
+      fallbacks shouldBe before
+    }
+
     "cover FTP license keys" in new State {
       {
         consumerStore.exists shouldBe false
@@ -152,6 +507,7 @@ trait LicenseKeyLifeCycleITLike extends AnyWordSpecLike {
 
   private def assertUninstalled(cm: ConsumerLicenseManager): Unit = {
     intercept[LicenseManagementException](cm.load())
+    intercept[LicenseManagementException](cm.loadSnapshot())
     intercept[LicenseManagementException](cm.verify())
     intercept[LicenseManagementException](cm.uninstall())
   }
@@ -25,5 +25,31 @@ trait RepositoryITLike extends AnyWordSpecLike {
       (authentication.sign(controller, artifact) decode clazz: License) shouldBe artifact
       (authentication verify controller decode clazz: License) shouldBe artifact
     }
+
+    "decode a signed and a verified object repeatedly" in {
+      val authentication = vendorManager.parameters.authentication
+      val controller = factory.controller(managementContext.codec, factory.model)
+      val artifact = licenseBean
+      val clazz = artifact.getClass
+      val signed = authentication.sign(controller, artifact)
+      val verified = authentication verify controller
+      for (decoder <- Seq(signed, signed, verified, verified)) {
+        val decoded = decoder decode clazz: License
+        decoded shouldBe artifact
+        decoded should not be theSameInstanceAs(artifact)
+      }
+    }
+
+    "sign and verify an object again after closing the authentication" in {
+      val authentication = vendorManager.parameters.authentication
+      val controller = factory.controller(managementContext.codec, factory.model)
+      val artifact = licenseBean
+      val clazz = artifact.getClass
+      for (_ <- 1 to 2) {
+        (authentication.sign(controller, artifact) decode clazz: License) shouldBe artifact
+        (authentication verify controller decode clazz: License) shouldBe artifact
+        authentication.close()
+      }
+    }
   }
 }
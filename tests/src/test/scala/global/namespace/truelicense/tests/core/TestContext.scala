@@ -109,6 +109,30 @@ trait TestContext {
     final def licenseKey: Array[Byte] = licenseStore.content
   }
 
+  /**
+   * Returns a new consumer license manager for a new license management context which gets built from the given
+   * builder with the same subject as the default license management context.
+   * The store of the consumer license manager gets configured by the given function.
+   */
+  final def newConsumerManager(
+    builder: LicenseManagementContextBuilder,
+    store: ConsumerLicenseManagerBuilder => ConsumerLicenseManagerBuilder = _ storeIn memory
+  ): ConsumerLicenseManager = {
+    store(builder
+      .subject(managementContext.subject)
+      .build
+      .consumer
+      .encryption
+      .protection(test1234)
+      .up
+      .authentication
+      .alias("mykey")
+      .loadFromResource(prefix + "public" + postfix)
+      .storeProtection(test1234)
+      .up)
+      .build
+  }
+
   final def assertLicenseBean(license: License): Unit = {
     import license._
     getConsumerAmount shouldBe 1
@@ -154,7 +178,7 @@ private object TestContext {
 
   private val me = new X500Principal("CN=Christian Schlichtherle")
 
-  private val test1234: PasswordProtection =
+  private[core] val test1234: PasswordProtection =
     new ObfuscatedPasswordProtection(new ObfuscatedString(Array[Long](0x545a955d0e30826cL, 0x3453ccaa499e6baeL))) /* => "test1234" */
 
   private val timestamp = new Date
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v1
+
+import de.schlichtherle.license.LicenseContent
+import de.schlichtherle.xml.GenericCertificate
+import global.namespace.fun.io.bios.BIOS.memory
+import global.namespace.truelicense.v1.{V1, V1CodecFactory}
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.Date
+import javax.security.auth.x500.X500Principal
+class V1CodecSpec extends AnyWordSpec {
+
+  private val codec = V1.builder.subject("subject").build.codec
+
+  /** Returns the given object as decoded by the codec and by a plain XML decoder. */
+  private def roundTrip[T <: AnyRef](obj: T, clazz: Class[T]): (T, T) = {
+    val store = memory
+    codec.encoder(store).encode(obj)
+    val decoded: T = codec.decoder(store).decode(clazz)
+    val expected = store.input.apply(in => new V1CodecFactory().xmlDecoder(in).readObject).asInstanceOf[T]
+    decoded should not be theSameInstanceAs(obj)
+    decoded -> expected
+  }
+
+  private def assertLicenseRoundTrip(license: LicenseContent): LicenseContent = {
+    val (decoded, expected) = roundTrip(license, classOf[LicenseContent])
+    decoded shouldBe expected
+    decoded shouldBe license
+    decoded
+  }
+
+  private def license(extra: AnyRef): LicenseContent = {
+    val me = new X500Principal("CN=Christian Schlichtherle")
+    val l = new LicenseContent
+    l.setConsumerAmount(2)
+    l.setConsumerType("User")
+    l.setExtra(extra)
+    l.setHolder(me)
+    l.setInfo("Hello, <world> & all!")
+    l.setIssued(new Date)
+    l.setIssuer(me)
+    l.setNotAfter(new Date)
+    l.setNotBefore(new Date)
+    l.setSubject("subject")
+    l
+  }
+
+  "A V1 codec" should {
+    "decode a license bean like an XML decoder" in {
+      val decoded = assertLicenseRoundTrip(license("extra"))
+      decoded.getHolder should be theSameInstanceAs decoded.getIssuer
+    }
+
+    "decode a license bean with unsupported extra data like an XML decoder" in {
+      val extra = new java.util.HashMap[String, String]
+      extra.put("message", "Hello, world!")
+      assertLicenseRoundTrip(license(extra))
+    }
+
+    "decode a license bean with control characters like an XML decoder" in {
+      assertLicenseRoundTrip(license("\u0001"))
+    }
+
+    "decode a generic certificate like an XML decoder" in {
+      val c = new GenericCertificate
+      c.setEncoded("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<java/>")
+      c.setSignature("c2lnbmF0dXJl")
+      c.setSignatureAlgorithm("SHA1withDSA")
+      c.setSignatureEncoding("US-ASCII/Base64")
+      val (decoded, expected) = roundTrip(c, classOf[GenericCertificate])
+      for (d <- Seq(decoded, expected)) {
+        import d._
+        getEncoded shouldBe c.getEncoded
+        getSignature shouldBe c.getSignature
+        getSignatureAlgorithm shouldBe c.getSignatureAlgorithm
+        getSignatureEncoding shouldBe c.getSignatureEncoding
+      }
+    }
+  }
+}
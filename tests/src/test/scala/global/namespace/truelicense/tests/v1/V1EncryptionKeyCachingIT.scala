@@ -0,0 +1,13 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v1
+
+import global.namespace.truelicense.tests.core.EncryptionKeyCachingITLike
+import org.scalatest.wordspec.AnyWordSpec
+
+class V1EncryptionKeyCachingIT extends AnyWordSpec with EncryptionKeyCachingITLike with V1TestContext {
+
+  protected val encryptionAlgorithm = "PBEWithMD5AndDES"
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v2.json
+
+import global.namespace.truelicense.tests.core.EncryptionKeyCachingITLike
+import org.scalatest.wordspec.AnyWordSpec
+
+class V2JsonEncryptionKeyCachingIT extends AnyWordSpec with EncryptionKeyCachingITLike with V2JsonTestContext {
+
+  protected val encryptionAlgorithm = "PBEWithSHA1AndDESede"
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v2.xml
+
+import global.namespace.truelicense.tests.core.EncryptionKeyCachingITLike
+import org.scalatest.wordspec.AnyWordSpec
+
+class V2XmlEncryptionKeyCachingIT extends AnyWordSpec with EncryptionKeyCachingITLike with V2XmlTestContext {
+
+  protected val encryptionAlgorithm = "PBEWithSHA1AndDESede"
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v4
+
+import global.namespace.truelicense.tests.core.EncryptionKeyCachingITLike
+import org.scalatest.wordspec.AnyWordSpec
+
+class V4EncryptionKeyCachingIT extends AnyWordSpec with EncryptionKeyCachingITLike with V4TestContext {
+
+  protected val encryptionAlgorithm = "PBEWithHmacSHA256AndAES_128"
+}
@@ -0,0 +1,10 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v5
+
+import global.namespace.truelicense.tests.core.LicenseKeyLifeCycleITLike
+import org.scalatest.wordspec.AnyWordSpec
+
+class V5LicenseKeyLifeCycleIT extends AnyWordSpec with LicenseKeyLifeCycleITLike with V5TestContext
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v5
+
+import global.namespace.fun.io.bios.BIOS.memory
+import global.namespace.truelicense.tests.v4.V4TestContext
+import global.namespace.truelicense.v5.V5
+import org.scalatest.matchers.should.Matchers._
+import org.scalatest.wordspec.AnyWordSpec
+
+class V5LicenseKeyMigrationIT extends AnyWordSpec with V5TestContext {
+
+  private val v4 = new V4TestContext {}
+
+  "A V4 format license key" should {
+    "be migratable to a smaller V5 format license key" in {
+      val v4Store = memory
+      v4.vendorManager generateKeyFrom v4.licenseBean saveTo v4Store
+      val v4State = new v4.State
+      v4State.consumerManager install v4Store
+      val v4License = v4State.consumerManager.load
+
+      val v5Store = memory
+      val generated = (vendorManager generateKeyFrom V5.license(v4License) saveTo v5Store).license
+      assertLicenseBean(generated)
+      val v5State = new State
+      v5State.consumerManager install v5Store
+      v5State.consumerManager.load shouldBe generated
+
+      v5Store.size.getAsLong should be < v4Store.size.getAsLong
+    }
+  }
+}
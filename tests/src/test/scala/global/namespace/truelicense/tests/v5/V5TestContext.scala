@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.tests.v5
+
+import global.namespace.truelicense.api.LicenseManagementContextBuilder
+import global.namespace.truelicense.tests.core.{ExtraMapTestContext, TestContext}
+import global.namespace.truelicense.tests.v4.V4TestContext
+import global.namespace.truelicense.v5.V5
+
+trait V5TestContext extends TestContext with ExtraMapTestContext {
+
+  final def managementContextBuilder: LicenseManagementContextBuilder = V5.builder
+
+  // V5 format license keys use the same keystore type as V4 format license keys, so let's reuse them.
+  protected final lazy val prefix = classOf[V4TestContext].getPackage.getName.replace('.', '/') + '/'
+
+  protected final lazy val postfix: String = ".pkcs12"
+}
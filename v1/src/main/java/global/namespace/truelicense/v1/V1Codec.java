@@ -10,13 +10,21 @@ import global.namespace.fun.io.api.Socket;
 import global.namespace.truelicense.api.codec.Codec;
 import global.namespace.truelicense.obfuscate.Obfuscate;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Type;
 
 import static global.namespace.fun.io.bios.BIOS.xml;
 
 /**
  * A codec for use with V1 format license keys.
+ * For decoding, this codec first tries a fast streaming reader which supports the subset of the
+ * {@link java.beans.XMLEncoder} format which is used by V1 format license keys.
+ * Failing that, it falls back to the {@link java.beans.XMLDecoder} provided by the codec factory.
+ * Note that the fast streaming reader bypasses {@link V1CodecFactory#xmlDecoder}, so any XML decoder configuration
+ * by a subclass of the codec factory, e.g. a custom exception listener, only applies to the XML data which the fast
+ * streaming reader does not support.
  */
 final class V1Codec implements Codec {
 
@@ -58,5 +66,19 @@ final class V1Codec implements Codec {
     public Encoder encoder(Socket<OutputStream> output) { return codec.encoder(output); }
 
     @Override
-    public Decoder decoder(Socket<InputStream> input) { return codec.decoder(input); }
+    public Decoder decoder(final Socket<InputStream> input) {
+        final Decoder fallback = codec.decoder(input);
+        return new Decoder() {
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T decode(final Type expected) throws Exception {
+                try {
+                    return (T) input.apply(V1XmlReader::read);
+                } catch (V1UnsupportedConstructException | XMLStreamException e) {
+                    return fallback.decode(expected);
+                }
+            }
+        };
+    }
 }
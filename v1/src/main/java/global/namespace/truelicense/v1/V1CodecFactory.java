@@ -44,6 +44,8 @@ public class V1CodecFactory implements CodecFactory {
 
     /**
      * Returns a new XML decoder.
+     * The codec only uses XML decoders for XML data which it cannot decode with its built-in streaming reader, e.g.
+     * if the license bean contains extra data of a custom type.
      */
     public XMLDecoder xmlDecoder(InputStream in) {
         return configure(new XMLDecoder(in));
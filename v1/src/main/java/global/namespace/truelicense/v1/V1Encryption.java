@@ -14,15 +14,22 @@ import global.namespace.truelicense.core.crypto.EncryptionMixin;
 import global.namespace.truelicense.obfuscate.Obfuscate;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.PBEParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.security.spec.AlgorithmParameterSpec;
+import java.security.MessageDigest;
+import java.util.Arrays;
 
 import static javax.crypto.Cipher.*;
 
 /**
  * An encryption for use with V1 format license keys.
+ * <p>
+ * If key caching is enabled, then this encryption derives the key and initialization vector using the MD5 based key
+ * derivation function of PBES1 and applies the cipher in CBC mode itself, which is exactly what the JCE does, too.
+ * Because the salt and iteration count are hard coded in TrueLicense V1, the key derivation happens only once.
  */
 final class V1Encryption extends EncryptionMixin implements Encryption {
 
@@ -33,6 +40,14 @@ final class V1Encryption extends EncryptionMixin implements Encryption {
     private static final String
             ILLEGAL_PBE_ALGORITHM = "V1 format license keys require the " + PBE_ALGORITHM + " algorithm.";
 
+    /** The salt is hard coded in TrueLicense V1. */
+    private static final byte[] SALT = {
+            (byte) 0xce, (byte) 0xfb, (byte) 0xde, (byte) 0xac,
+            (byte) 0x05, (byte) 0x02, (byte) 0x19, (byte) 0x71
+    };
+
+    private static final int ITERATION_COUNT = 2005;
+
     private final Filter cipher = BIOS.cipher(this::cipher);
 
     V1Encryption(final EncryptionParameters parameters) {
@@ -57,15 +72,35 @@ final class V1Encryption extends EncryptionMixin implements Encryption {
     }
 
     private Cipher cipher(final PasswordUsage usage) throws Exception {
-        // The salt is hard coded in TrueLicense V1:
-        final AlgorithmParameterSpec spec = new PBEParameterSpec(
-                new byte[]{
-                        (byte) 0xce, (byte) 0xfb, (byte) 0xde, (byte) 0xac,
-                        (byte) 0x05, (byte) 0x02, (byte) 0x19, (byte) 0x71
-                },
-                2005);
-        final Cipher cipher = getInstance(algorithm());
-        cipher.init(PasswordUsage.ENCRYPTION.equals(usage) ? ENCRYPT_MODE : DECRYPT_MODE, secretKey(usage), spec);
-        return cipher;
+        final int mode = PasswordUsage.ENCRYPTION.equals(usage) ? ENCRYPT_MODE : DECRYPT_MODE;
+        if (keyCaching()) {
+            final byte[] keyAndIv = derivedKey(usage, SALT, ITERATION_COUNT, V1Encryption::pbes1);
+            try {
+                final Cipher cipher = getInstance("DES/CBC/PKCS5Padding");
+                cipher.init(mode, new SecretKeySpec(keyAndIv, 0, 8, "DES"), new IvParameterSpec(keyAndIv, 8, 8));
+                return cipher;
+            } finally {
+                Arrays.fill(keyAndIv, (byte) 0);
+            }
+        } else {
+            final Cipher cipher = getInstance(algorithm());
+            cipher.init(mode, secretKey(usage), new PBEParameterSpec(SALT, ITERATION_COUNT));
+            return cipher;
+        }
+    }
+
+    /**
+     * Derives the key and initialization vector from the given password, salt and iteration count using the MD5 based
+     * key derivation function defined in section 6.1.1 of RFC 8018.
+     */
+    private static byte[] pbes1(final byte[] password, final byte[] salt, final int iterationCount) throws Exception {
+        final MessageDigest md = MessageDigest.getInstance("MD5");
+        md.update(password);
+        md.update(salt);
+        byte[] keyAndIv = md.digest();
+        for (int i = 1; i < iterationCount; i++) {
+            keyAndIv = md.digest(keyAndIv);
+        }
+        return keyAndIv;
     }
 }
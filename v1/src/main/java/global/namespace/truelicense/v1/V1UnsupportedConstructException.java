@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v1;
+
+/**
+ * Indicates that the XML data contains a construct which is not supported by the {@link V1XmlReader}, so that the
+ * caller should fall back to an {@link java.beans.XMLDecoder}.
+ */
+final class V1UnsupportedConstructException extends Exception {
+
+    private static final long serialVersionUID = 0L;
+
+    V1UnsupportedConstructException(String construct) {
+        super("Unsupported construct: " + construct);
+    }
+
+    V1UnsupportedConstructException(String construct, Throwable cause) {
+        super("Unsupported construct: " + construct, cause);
+    }
+}
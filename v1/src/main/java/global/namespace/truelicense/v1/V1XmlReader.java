@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v1;
+
+import de.schlichtherle.license.LicenseContent;
+import de.schlichtherle.xml.GenericCertificate;
+
+import javax.security.auth.x500.X500Principal;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+
+/**
+ * A streaming reader for the subset of the {@link java.beans.XMLEncoder} format which is used by V1 format license
+ * keys, that is, {@link GenericCertificate} and {@link LicenseContent} objects with string, integer, date and
+ * {@link X500Principal} properties, including references to previously read objects.
+ * This reader does not use reflection or bean introspection, so it's much faster than a {@link java.beans.XMLDecoder}.
+ * However, it throws a {@link V1UnsupportedConstructException} for any other construct, e.g. for extra data which is
+ * a custom bean or a property value of an unexpected type.
+ * In this case, the caller is expected to fall back to an {@link java.beans.XMLDecoder}.
+ */
+final class V1XmlReader {
+
+    private static final XMLInputFactory factory;
+
+    static {
+        final XMLInputFactory f = XMLInputFactory.newFactory();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory = f;
+    }
+
+    private static final Map<String, BiConsumer<GenericCertificate, Object>> certificateProperties = new HashMap<>();
+
+    private static final Map<String, BiConsumer<LicenseContent, Object>> licenseProperties = new HashMap<>();
+
+    static {
+        certificateProperties.put("encoded", (c, v) -> c.setEncoded((String) v));
+        certificateProperties.put("signature", (c, v) -> c.setSignature((String) v));
+        certificateProperties.put("signatureAlgorithm", (c, v) -> c.setSignatureAlgorithm((String) v));
+        certificateProperties.put("signatureEncoding", (c, v) -> c.setSignatureEncoding((String) v));
+
+        licenseProperties.put("consumerAmount", (l, v) -> l.setConsumerAmount((Integer) v));
+        licenseProperties.put("consumerType", (l, v) -> l.setConsumerType((String) v));
+        licenseProperties.put("extra", (l, v) -> l.setExtra(v));
+        licenseProperties.put("holder", (l, v) -> l.setHolder((X500Principal) v));
+        licenseProperties.put("info", (l, v) -> l.setInfo((String) v));
+        licenseProperties.put("issued", (l, v) -> l.setIssued((Date) v));
+        licenseProperties.put("issuer", (l, v) -> l.setIssuer((X500Principal) v));
+        licenseProperties.put("notAfter", (l, v) -> l.setNotAfter((Date) v));
+        licenseProperties.put("notBefore", (l, v) -> l.setNotBefore((Date) v));
+        licenseProperties.put("subject", (l, v) -> l.setSubject((String) v));
+    }
+
+    private final Map<String, Object> ids = new HashMap<>();
+
+    private final XMLStreamReader reader;
+
+    private V1XmlReader(final XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the first object from the given input stream.
+     *
+     * @throws V1UnsupportedConstructException if the XML data contains a construct which is not supported by this
+     *         reader.
+     * @throws XMLStreamException if the XML data is malformed.
+     */
+    static Object read(final InputStream in) throws V1UnsupportedConstructException, XMLStreamException {
+        final XMLStreamReader reader = factory.createXMLStreamReader(in);
+        try {
+            return new V1XmlReader(reader).document();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Object document() throws V1UnsupportedConstructException, XMLStreamException {
+        reader.nextTag();
+        require("java");
+        reader.nextTag();
+        final Object value = value();
+        if (END_ELEMENT != reader.nextTag()) {
+            throw unsupported("more than one object");
+        }
+        return value;
+    }
+
+    private Object value() throws V1UnsupportedConstructException, XMLStreamException {
+        final String name = reader.getLocalName();
+        switch (name) {
+            case "string":
+                return reader.getElementText();
+            case "int":
+                try {
+                    return Integer.valueOf(reader.getElementText().trim());
+                } catch (final NumberFormatException e) {
+                    throw unsupported(name, e);
+                }
+            case "long":
+                try {
+                    return Long.valueOf(reader.getElementText().trim());
+                } catch (final NumberFormatException e) {
+                    throw unsupported(name, e);
+                }
+            case "null":
+                reader.getElementText();
+                return null;
+            case "object":
+                return object();
+            default:
+                throw unsupported(name);
+        }
+    }
+
+    private Object object() throws V1UnsupportedConstructException, XMLStreamException {
+        final String idref = reader.getAttributeValue(null, "idref");
+        if (null != idref) {
+            if (!ids.containsKey(idref) || END_ELEMENT != reader.nextTag()) {
+                throw unsupported("object idref=\"" + idref + "\"");
+            }
+            return ids.get(idref);
+        }
+        final String id = reader.getAttributeValue(null, "id");
+        final String type = reader.getAttributeValue(null, "class");
+        if ((null != id ? 2 : 1) != reader.getAttributeCount()) {
+            throw unsupported("object with other attributes than class and id");
+        }
+        final Object object;
+        if ("java.util.Date".equals(type)) {
+            object = new Date(argument(Long.class));
+        } else if ("javax.security.auth.x500.X500Principal".equals(type)) {
+            try {
+                object = new X500Principal(argument(String.class));
+            } catch (final IllegalArgumentException e) {
+                throw unsupported("object class=\"" + type + "\"", e);
+            }
+        } else if ("de.schlichtherle.license.LicenseContent".equals(type)) {
+            object = properties(new LicenseContent(), licenseProperties);
+        } else if ("de.schlichtherle.xml.GenericCertificate".equals(type)) {
+            object = properties(new GenericCertificate(), certificateProperties);
+        } else {
+            throw unsupported("object class=\"" + type + "\"");
+        }
+        if (null != id) {
+            ids.put(id, object);
+        }
+        return object;
+    }
+
+    private <T> T argument(final Class<T> type) throws V1UnsupportedConstructException, XMLStreamException {
+        reader.nextTag();
+        final Object argument = value();
+        if (END_ELEMENT != reader.nextTag()) {
+            throw unsupported("constructor with more than one argument");
+        }
+        if (!type.isInstance(argument)) {
+            throw unsupported("constructor argument of " + (null == argument ? "null" : argument.getClass()));
+        }
+        return type.cast(argument);
+    }
+
+    private <T> T properties(final T object, final Map<String, BiConsumer<T, Object>> setters)
+            throws V1UnsupportedConstructException, XMLStreamException {
+        while (END_ELEMENT != reader.nextTag()) {
+            require("void");
+            final String property = reader.getAttributeValue(null, "property");
+            final BiConsumer<T, Object> setter = setters.get(property);
+            if (null == setter || 1 != reader.getAttributeCount()) {
+                throw unsupported("void property=\"" + property + "\"");
+            }
+            reader.nextTag();
+            try {
+                setter.accept(object, value());
+            } catch (final ClassCastException | NullPointerException e) {
+                throw unsupported("void property=\"" + property + "\" with a value of another type", e);
+            }
+            if (END_ELEMENT != reader.nextTag()) {
+                throw unsupported("void with more than one value");
+            }
+        }
+        return object;
+    }
+
+    private void require(final String name) throws V1UnsupportedConstructException {
+        if (!name.equals(reader.getLocalName())) {
+            throw unsupported(reader.getLocalName());
+        }
+    }
+
+    private static V1UnsupportedConstructException unsupported(String construct) {
+        return new V1UnsupportedConstructException(construct);
+    }
+
+    private static V1UnsupportedConstructException unsupported(String construct, Throwable cause) {
+        return new V1UnsupportedConstructException(construct, cause);
+    }
+}
@@ -13,21 +13,38 @@ import global.namespace.truelicense.core.crypto.EncryptionMixin;
 import javax.crypto.Cipher;
 import javax.crypto.CipherInputStream;
 import javax.crypto.CipherOutputStream;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.AlgorithmParameters;
+import java.security.MessageDigest;
+import java.util.Arrays;
 
 import static javax.crypto.Cipher.*;
 
 /**
  * An encryption for use with V2 format license keys.
+ * <p>
+ * If key caching is enabled and the algorithm is {@code PBEWithSHA1AndDESede}, then this encryption derives the key
+ * and initialization vector for decryption using the PKCS #12 key derivation function and applies the cipher in CBC
+ * mode itself, which is exactly what the JCE does, too.
+ * This enables caching the derived keys, so that the key derivation happens only once per salt and iteration count.
+ * Encryption always uses the JCE with a random salt because the initialization vector is derived from the salt, too,
+ * so reusing the salt would reuse the initialization vector.
  */
 final class V2Encryption extends EncryptionMixin implements Encryption {
 
+    private static final String PKCS12_ALGORITHM = "PBEWithSHA1AndDESede";
+
+    private final boolean pkcs12;
+
     V2Encryption(EncryptionParameters parameters) {
         super(parameters);
+        this.pkcs12 = keyCaching() && PKCS12_ALGORITHM.equalsIgnoreCase(algorithm());
     }
 
     @Override
@@ -49,7 +66,10 @@ final class V2Encryption extends EncryptionMixin implements Encryption {
             final DataInputStream din = new DataInputStream(in);
             final byte[] encoded = new byte[din.readShort() & 0xffff];
             din.readFully(encoded);
-            return new CipherInputStream(in, cipher(PasswordUsage.DECRYPTION, param(encoded)));
+            final AlgorithmParameters param = param(encoded);
+            return new CipherInputStream(in, pkcs12
+                    ? pkcs12Cipher(PasswordUsage.DECRYPTION, param)
+                    : cipher(PasswordUsage.DECRYPTION, param));
         });
     }
 
@@ -64,4 +84,83 @@ final class V2Encryption extends EncryptionMixin implements Encryption {
         param.init(encoded);
         return param;
     }
+
+    private Cipher pkcs12Cipher(final PasswordUsage usage, final AlgorithmParameters param) throws Exception {
+        final PBEParameterSpec spec = param.getParameterSpec(PBEParameterSpec.class);
+        final byte[] keyAndIv = derivedKey(usage, spec.getSalt(), spec.getIterationCount(), (password, salt, count) -> {
+            final byte[] derived = new byte[32];
+            System.arraycopy(pkcs12(password, salt, count, (byte) 1, 24), 0, derived, 0, 24);
+            System.arraycopy(pkcs12(password, salt, count, (byte) 2, 8), 0, derived, 24, 8);
+            return derived;
+        });
+        try {
+            final Cipher cipher = getInstance("DESede/CBC/PKCS5Padding");
+            cipher.init(PasswordUsage.ENCRYPTION.equals(usage) ? ENCRYPT_MODE : DECRYPT_MODE,
+                    new SecretKeySpec(keyAndIv, 0, 24, "DESede"), new IvParameterSpec(keyAndIv, 24, 8));
+            return cipher;
+        } finally {
+            Arrays.fill(keyAndIv, (byte) 0);
+        }
+    }
+
+    /**
+     * Derives {@code length} bytes of key material for the given purpose {@code id} from the given password, salt and
+     * iteration count using the SHA-1 based key derivation function defined in appendix B.2 of RFC 7292.
+     */
+    private static byte[] pkcs12(
+            final byte[] password,
+            final byte[] salt,
+            final int iterationCount,
+            final byte id,
+            final int length
+    ) throws Exception {
+        final int u = 20, v = 64;
+        final MessageDigest md = MessageDigest.getInstance("SHA-1");
+
+        // The password as a BMPString, including the two byte null terminator:
+        final byte[] bmp = new byte[password.length * 2 + 2];
+        for (int i = 0; i < password.length; i++) {
+            bmp[i * 2 + 1] = password[i];
+        }
+
+        final byte[] d = new byte[v];
+        Arrays.fill(d, id);
+        final int s = (salt.length + v - 1) / v * v, p = (bmp.length + v - 1) / v * v;
+        final byte[] i = new byte[s + p];
+        for (int k = 0; k < s; k++) {
+            i[k] = salt[k % salt.length];
+        }
+        for (int k = 0; k < p; k++) {
+            i[s + k] = bmp[k % bmp.length];
+        }
+        Arrays.fill(bmp, (byte) 0);
+
+        final byte[] key = new byte[length];
+        final byte[] b = new byte[v];
+        for (int offset = 0; ; offset += u) {
+            md.update(d);
+            md.update(i);
+            byte[] a = md.digest();
+            for (int r = 1; r < iterationCount; r++) {
+                a = md.digest(a);
+            }
+            System.arraycopy(a, 0, key, offset, Math.min(length - offset, u));
+            if (offset + u >= length) {
+                break;
+            }
+            for (int k = 0; k < v; k++) {
+                b[k] = a[k % u];
+            }
+            for (int j = 0; j < i.length; j += v) {
+                int carry = 1;
+                for (int k = v - 1; 0 <= k; k--) {
+                    carry += (i[j + k] & 0xff) + (b[k] & 0xff);
+                    i[j + k] = (byte) carry;
+                    carry >>>= 8;
+                }
+            }
+        }
+        Arrays.fill(i, (byte) 0);
+        return key;
+    }
 }
@@ -26,12 +26,23 @@ import java.io.IOException;
 @SuppressWarnings("WeakerAccess")
 public class V2JsonCodecFactory implements CodecFactory {
 
+    private volatile Codec codec;
+
+    /**
+     * Returns the codec for this factory.
+     * The codec gets created upon the first call and is reused for all subsequent calls.
+     */
     public final Codec codec() {
-        return new V2JsonCodec(this);
+        Codec c = codec;
+        if (null == c) {
+            codec = c = new V2JsonCodec(this);
+        }
+        return c;
     }
 
     /**
      * Returns a new object mapper.
+     * This method gets called only once per factory.
      */
     public ObjectMapper objectMapper() {
         return configure(new ObjectMapper());
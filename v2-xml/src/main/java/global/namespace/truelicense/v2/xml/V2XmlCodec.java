@@ -7,16 +7,22 @@ package global.namespace.truelicense.v2.xml;
 import global.namespace.fun.io.api.Decoder;
 import global.namespace.fun.io.api.Encoder;
 import global.namespace.fun.io.api.Socket;
+import global.namespace.fun.io.api.function.XSupplier;
 import global.namespace.truelicense.api.codec.Codec;
 import global.namespace.truelicense.obfuscate.Obfuscate;
 
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import java.io.InputStream;
 import java.io.OutputStream;
-
-import static global.namespace.fun.io.jaxb.JAXB.xml;
+import java.lang.reflect.Type;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * A codec for use with V2/XML format license keys.
+ * Creating and configuring marshallers and unmarshallers is expensive, so this codec keeps a bounded pool of each.
  */
 final class V2XmlCodec implements Codec {
 
@@ -26,10 +32,23 @@ final class V2XmlCodec implements Codec {
     @Obfuscate
     private static final String EIGHT_BIT = "8bit";
 
-    private final global.namespace.fun.io.api.Codec codec;
+    private final Pool<Marshaller> marshallers;
+
+    private final Pool<Unmarshaller> unmarshallers;
 
-    V2XmlCodec(V2XmlCodecFactory factory) {
-        this.codec = xml(factory.jaxbContext(), factory::configure, factory::configure);
+    V2XmlCodec(final V2XmlCodecFactory factory) {
+        final JAXBContext context = factory.jaxbContext();
+        final int capacity = factory.poolCapacity();
+        this.marshallers = new Pool<>(capacity, () -> {
+            final Marshaller marshaller = context.createMarshaller();
+            factory.configure(marshaller);
+            return marshaller;
+        });
+        this.unmarshallers = new Pool<>(capacity, () -> {
+            final Unmarshaller unmarshaller = context.createUnmarshaller();
+            factory.configure(unmarshaller);
+            return unmarshaller;
+        });
     }
 
     /**
@@ -58,11 +77,51 @@ final class V2XmlCodec implements Codec {
 
     @Override
     public Encoder encoder(Socket<OutputStream> output) {
-        return codec.encoder(output);
+        return obj -> output.accept(out -> {
+            final Marshaller marshaller = marshallers.borrow();
+            marshaller.marshal(obj, out);
+            marshallers.release(marshaller);
+        });
     }
 
     @Override
     public Decoder decoder(Socket<InputStream> input) {
-        return codec.decoder(input);
+        return new Decoder() {
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T decode(Type expected) throws Exception {
+                return input.apply(in -> {
+                    final Unmarshaller unmarshaller = unmarshallers.borrow();
+                    final T result = (T) unmarshaller.unmarshal(in);
+                    unmarshallers.release(unmarshaller);
+                    return result;
+                });
+            }
+        };
+    }
+
+    /**
+     * A bounded pool of objects which are not thread-safe.
+     * Objects are only returned to the pool after successful use, so any state left behind by a failure is discarded.
+     */
+    private static final class Pool<T> {
+
+        private final BlockingQueue<T> idle;
+        private final XSupplier<T> factory;
+
+        Pool(final int capacity, final XSupplier<T> factory) {
+            this.idle = new ArrayBlockingQueue<>(capacity);
+            this.factory = factory;
+        }
+
+        T borrow() throws Exception {
+            final T object = idle.poll();
+            return null != object ? object : factory.get();
+        }
+
+        void release(T object) {
+            idle.offer(object);
+        }
     }
 }
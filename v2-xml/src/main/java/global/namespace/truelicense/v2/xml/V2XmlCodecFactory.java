@@ -17,12 +17,23 @@ import javax.xml.bind.Unmarshaller;
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class V2XmlCodecFactory implements CodecFactory {
 
+    private volatile Codec codec;
+
+    /**
+     * Returns the codec for this factory.
+     * The codec gets created upon the first call and is reused for all subsequent calls.
+     */
     public final Codec codec() {
-        return new V2XmlCodec(this);
+        Codec c = codec;
+        if (null == c) {
+            codec = c = new V2XmlCodec(this);
+        }
+        return c;
     }
 
     /**
      * Returns a new JAXB context.
+     * This method gets called only once per factory.
      */
     public JAXBContext jaxbContext() {
         return jaxbContext(classesToBeBound());
@@ -46,14 +57,26 @@ public class V2XmlCodecFactory implements CodecFactory {
         return new Class[]{V2XmlLicense.class, V2XmlRepositoryModel.class};
     }
 
+    /**
+     * Returns the maximum number of idle marshallers and unmarshallers to keep for reuse by the codec.
+     * If more threads concurrently encode or decode objects, then additional marshallers and unmarshallers get created
+     * and discarded after use.
+     * The returned value must be positive.
+     */
+    protected int poolCapacity() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * Configures the given marshaller which has been created by the {@link #jaxbContext()}.
+     * The codec reuses the marshaller, so this method gets called only once per marshaller.
      */
     protected void configure(Marshaller marshaller) {
     }
 
     /**
      * Configures the given unmarshaller which has been created by the {@link #jaxbContext()}.
+     * The codec reuses the unmarshaller, so this method gets called only once per unmarshaller.
      */
     protected void configure(Unmarshaller unmarshaller) {
     }
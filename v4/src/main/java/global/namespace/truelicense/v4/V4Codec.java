@@ -4,6 +4,9 @@
  */
 package global.namespace.truelicense.v4;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import global.namespace.fun.io.api.Decoder;
 import global.namespace.fun.io.api.Encoder;
 import global.namespace.fun.io.api.Socket;
@@ -12,8 +15,9 @@ import global.namespace.truelicense.obfuscate.Obfuscate;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-
-import static global.namespace.fun.io.jackson.Jackson.json;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A codec for use with V4 format license keys.
@@ -26,10 +30,18 @@ final class V4Codec implements Codec {
     @Obfuscate
     private static final String CONTENT_TRANSFER_ENCODING = "8bit";
 
-    private final global.namespace.fun.io.api.Codec codec;
+    private final ObjectMapper mapper;
+
+    private final ObjectWriter writer;
+
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
 
     V4Codec(V4CodecFactory factory) {
-        this.codec = json(factory::objectMapper);
+        this.mapper = factory.objectMapper();
+        this.writer = mapper.writer();
+        // Bind readers for the types which get decoded when verifying a license key:
+        reader(V4RepositoryModel.class);
+        reader(V4License.class);
     }
 
     /**
@@ -60,11 +72,23 @@ final class V4Codec implements Codec {
 
     @Override
     public Encoder encoder(Socket<OutputStream> output) {
-        return codec.encoder(output);
+        return obj -> output.accept(out -> writer.writeValue(out, obj));
     }
 
     @Override
     public Decoder decoder(Socket<InputStream> input) {
-        return codec.decoder(input);
+        return new Decoder() {
+
+            @Override
+            public <T> T decode(Type expected) throws Exception {
+                final ObjectReader reader = reader(expected);
+                return input.apply(reader::readValue);
+            }
+        };
+    }
+
+    // Object readers are immutable and thread-safe and cache their root deserializer, so it pays to reuse them.
+    private ObjectReader reader(Type type) {
+        return readers.computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t)));
     }
 }
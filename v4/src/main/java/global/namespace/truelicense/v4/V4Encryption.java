@@ -13,21 +13,44 @@ import global.namespace.truelicense.core.crypto.EncryptionMixin;
 import javax.crypto.Cipher;
 import javax.crypto.CipherInputStream;
 import javax.crypto.CipherOutputStream;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.PBEParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.AlgorithmParameters;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static javax.crypto.Cipher.*;
 
 /**
  * An encryption for use with V4 format license keys.
+ * <p>
+ * If key caching is enabled and the algorithm is a PBES2 scheme, e.g. {@code PBEWithHmacSHA256AndAES_128}, then this
+ * encryption derives the key for decryption using PBKDF2 and applies the cipher in CBC mode itself, which is exactly
+ * what the JCE does, too.
+ * This enables caching the derived keys, so that the expensive key derivation happens only once per salt and
+ * iteration count.
+ * Encryption always uses the JCE with a random salt, so that each license key gets encrypted with a different key.
  */
 final class V4Encryption extends EncryptionMixin implements Encryption {
 
+    private static final Pattern PBES2_ALGORITHM =
+            Pattern.compile("PBEWith(Hmac\\w+)And(\\w+)_(\\d+)", CASE_INSENSITIVE);
+
+    private final Optional<Pbes2> pbes2;
+
     V4Encryption(EncryptionParameters parameters) {
         super(parameters);
+        final Matcher matcher = PBES2_ALGORITHM.matcher(algorithm());
+        this.pbes2 = keyCaching() && matcher.matches() ? Optional.of(new Pbes2(matcher)) : Optional.empty();
     }
 
     @Override
@@ -49,7 +72,10 @@ final class V4Encryption extends EncryptionMixin implements Encryption {
             final DataInputStream din = new DataInputStream(in);
             final byte[] encoded = new byte[din.readShort() & 0xffff];
             din.readFully(encoded);
-            return new CipherInputStream(in, cipher(PasswordUsage.DECRYPTION, param(encoded)));
+            final AlgorithmParameters param = param(encoded);
+            return new CipherInputStream(in, pbes2.isPresent()
+                    ? pbes2Cipher(param)
+                    : cipher(PasswordUsage.DECRYPTION, param));
         });
     }
 
@@ -64,4 +90,52 @@ final class V4Encryption extends EncryptionMixin implements Encryption {
         param.init(encoded);
         return param;
     }
+
+    private Cipher pbes2Cipher(final AlgorithmParameters param) throws Exception {
+        final Pbes2 pbes2 = this.pbes2.get();
+        final PBEParameterSpec spec = param.getParameterSpec(PBEParameterSpec.class);
+        final byte[] key = derivedKey(PasswordUsage.DECRYPTION, spec.getSalt(), spec.getIterationCount(),
+                (password, salt, iterationCount) ->
+                        pbkdf2(pbes2.kdfAlgorithm, password, salt, iterationCount, pbes2.keyLength));
+        try {
+            final Cipher cipher = getInstance(pbes2.cipherAlgorithm + "/CBC/PKCS5Padding");
+            cipher.init(DECRYPT_MODE, new SecretKeySpec(key, pbes2.cipherAlgorithm), spec.getParameterSpec());
+            return cipher;
+        } finally {
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+
+    private static byte[] pbkdf2(
+            final String algorithm,
+            final byte[] password,
+            final byte[] salt,
+            final int iterationCount,
+            final int keyLength
+    ) throws Exception {
+        final char[] characters = new char[password.length];
+        for (int i = 0; i < password.length; i++) {
+            characters[i] = (char) (password[i] & 0xff);
+        }
+        final PBEKeySpec ks = new PBEKeySpec(characters, salt, iterationCount, keyLength);
+        try {
+            return SecretKeyFactory.getInstance(algorithm).generateSecret(ks).getEncoded();
+        } finally {
+            ks.clearPassword();
+            Arrays.fill(characters, '\0');
+        }
+    }
+
+    /** The components of a PBES2 algorithm name. */
+    private static final class Pbes2 {
+
+        final String kdfAlgorithm, cipherAlgorithm;
+        final int keyLength;
+
+        Pbes2(final Matcher matcher) {
+            this.kdfAlgorithm = "PBKDF2With" + matcher.group(1);
+            this.cipherAlgorithm = matcher.group(2);
+            this.keyLength = Integer.parseInt(matcher.group(3));
+        }
+    }
 }
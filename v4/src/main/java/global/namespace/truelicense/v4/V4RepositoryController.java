@@ -5,14 +5,16 @@
 package global.namespace.truelicense.v4;
 
 import global.namespace.fun.io.api.Decoder;
-import global.namespace.fun.io.api.Store;
+import global.namespace.fun.io.api.Socket;
 import global.namespace.truelicense.api.auth.RepositoryController;
 import global.namespace.truelicense.api.auth.RepositoryIntegrityException;
 import global.namespace.truelicense.api.codec.Codec;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.security.Signature;
 
-import static global.namespace.fun.io.bios.BIOS.memory;
 import static global.namespace.truelicense.spi.codec.Codecs.charset;
 import static java.util.Base64.getDecoder;
 import static java.util.Base64.getEncoder;
@@ -20,6 +22,8 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * A repository controller for use with V4 format license keys.
+ * The encoded artifact is signed, verified and decoded from a single byte array, without copying it to any intermediate
+ * store.
  */
 final class V4RepositoryController implements RepositoryController {
 
@@ -33,13 +37,12 @@ final class V4RepositoryController implements RepositoryController {
 
     @Override
     public final Decoder sign(final Signature engine, final Object artifact) throws Exception {
-        final Store store = memory();
-        codec.encoder(store).encode(artifact);
-        final byte[] artifactData = store.content();
-        engine.update(artifactData);
+        final Buffer buffer = new Buffer();
+        codec.encoder(() -> buffer).encode(artifact);
+        engine.update(buffer.array(), 0, buffer.size());
         final byte[] signatureData = engine.sign();
 
-        final String encodedArtifact = body(codec, artifactData);
+        final String encodedArtifact = body(codec, buffer);
         final String encodedSignature = getEncoder().encodeToString(signatureData);
         final String signatureAlgorithm = engine.getAlgorithm();
 
@@ -47,13 +50,13 @@ final class V4RepositoryController implements RepositoryController {
         model.signature = encodedSignature;
         model.algorithm = signatureAlgorithm;
 
-        return codec.decoder(store);
+        return decoder(codec, buffer.array(), buffer.size());
     }
 
-    private static String body(Codec codec, byte[] artifact) {
+    private static String body(Codec codec, Buffer buffer) {
         return charset(codec)
-                .map(charset -> new String(artifact, charset))
-                .orElseGet(() -> getEncoder().encodeToString(artifact));
+                .map(charset -> new String(buffer.array(), 0, buffer.size(), charset))
+                .orElseGet(() -> getEncoder().encodeToString(buffer.toByteArray()));
     }
 
     @Override
@@ -66,12 +69,22 @@ final class V4RepositoryController implements RepositoryController {
         if (!engine.verify(getDecoder().decode(model.signature))) {
             throw new RepositoryIntegrityException();
         }
-        final Store store = memory();
-        store.content(artifactData);
-        return codec.decoder(store);
+        return decoder(codec, artifactData, artifactData.length);
     }
 
     private static byte[] data(Codec codec, String body) {
         return charset(codec).map(body::getBytes).orElseGet(() -> getDecoder().decode(body));
     }
+
+    // The returned decoder reads the given array directly rather than a copy
+    // of it, so the array must not get modified anymore.
+    private static Decoder decoder(Codec codec, byte[] data, int length) {
+        return codec.decoder((Socket<InputStream>) () -> new ByteArrayInputStream(data, 0, length));
+    }
+
+    /** A byte array output stream which provides access to its buffer without copying it. */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        byte[] array() { return buf; }
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v5;
+
+import global.namespace.truelicense.api.License;
+import global.namespace.truelicense.api.LicenseManagementContextBuilder;
+import global.namespace.truelicense.v4.V4;
+
+/**
+ * This facade provides a static factory method for license management context builders for use with Version 5 (V5)
+ * format license keys.
+ * This class should not be used by applications because the created license management context builders are only
+ * partially configured.
+ * <p>
+ * V5 format license keys use the same compression, encryption and keystore type as V4 format license keys, but encode
+ * the license bean and the repository model using the Concise Binary Object Representation (CBOR).
+ * This makes them smaller and faster to decode.
+ * <p>
+ * V5 format license keys are not compatible with V4 format license keys.
+ * To migrate from V4 to V5, a vendor needs to load the license bean from the V4 format license key, convert it using
+ * {@link #license(License)} and generate a new V5 format license key from it.
+ */
+public final class V5 {
+
+    /**
+     * Returns a new license management context builder for managing V5 format license keys.
+     */
+    public static LicenseManagementContextBuilder builder() {
+        return V4
+                .builder()
+                .codecFactory(new V5CodecFactory())
+                .licenseFactory(new V5LicenseFactory())
+                .repositoryFactory(new V5RepositoryFactory());
+    }
+
+    /**
+     * Returns a new V5 license with a copy of the properties of the given license.
+     * This is useful for migrating license keys from another format, e.g. V4.
+     */
+    public static License license(final License source) {
+        final License target = new V5License();
+        target.setConsumerAmount(source.getConsumerAmount());
+        target.setConsumerType(source.getConsumerType());
+        target.setExtra(source.getExtra());
+        target.setHolder(source.getHolder());
+        target.setInfo(source.getInfo());
+        target.setIssued(source.getIssued());
+        target.setIssuer(source.getIssuer());
+        target.setNotAfter(source.getNotAfter());
+        target.setNotBefore(source.getNotBefore());
+        target.setSubject(source.getSubject());
+        return target;
+    }
+
+    private V5() {
+    }
+}
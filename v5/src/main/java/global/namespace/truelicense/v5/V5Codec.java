@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v5;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import global.namespace.fun.io.api.Decoder;
+import global.namespace.fun.io.api.Encoder;
+import global.namespace.fun.io.api.Socket;
+import global.namespace.truelicense.api.codec.Codec;
+import global.namespace.truelicense.obfuscate.Obfuscate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A codec for use with V5 format license keys.
+ * This codec uses the Concise Binary Object Representation (CBOR).
+ */
+final class V5Codec implements Codec {
+
+    @Obfuscate
+    private static final String CONTENT_TYPE = "application/cbor";
+
+    @Obfuscate
+    private static final String CONTENT_TRANSFER_ENCODING = "binary";
+
+    private final ObjectMapper mapper;
+
+    private final ObjectWriter writer;
+
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    V5Codec(V5CodecFactory factory) {
+        this.mapper = factory.objectMapper();
+        this.writer = mapper.writer();
+        // Bind readers for the types which get decoded when verifying a license key:
+        reader(V5RepositoryModel.class);
+        reader(V5License.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation in the class {@link V5Codec}
+     * returns {@code "application/cbor"}.
+     *
+     * @see <a href="http://tools.ietf.org/html/rfc7049">RFC 7049</a>
+     */
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation in the class {@link V5Codec}
+     * returns {@code "binary"}.
+     *
+     * @see <a href="http://tools.ietf.org/html/rfc2045">RFC 2045</a>
+     */
+    @Override
+    public String contentTransferEncoding() {
+        return CONTENT_TRANSFER_ENCODING;
+    }
+
+    @Override
+    public Encoder encoder(Socket<OutputStream> output) {
+        return obj -> output.accept(out -> writer.writeValue(out, obj));
+    }
+
+    @Override
+    public Decoder decoder(Socket<InputStream> input) {
+        return new Decoder() {
+
+            @Override
+            public <T> T decode(Type expected) throws Exception {
+                final ObjectReader reader = reader(expected);
+                return input.apply(reader::readValue);
+            }
+        };
+    }
+
+    // Object readers are immutable and thread-safe and cache their root deserializer, so it pays to reuse them.
+    private ObjectReader reader(Type type) {
+        return readers.computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t)));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v5;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import global.namespace.truelicense.api.License;
+import global.namespace.truelicense.api.codec.Codec;
+import global.namespace.truelicense.api.codec.CodecFactory;
+
+import javax.security.auth.x500.X500Principal;
+import java.io.IOException;
+
+/**
+ * A codec factory for use with V5 format license keys.
+ */
+@SuppressWarnings("WeakerAccess")
+public class V5CodecFactory implements CodecFactory {
+
+    private volatile Codec codec;
+
+    /**
+     * Returns the codec for this factory.
+     * The codec gets created upon the first call and is reused for all subsequent calls.
+     */
+    public final Codec codec() {
+        Codec c = codec;
+        if (null == c) {
+            codec = c = new V5Codec(this);
+        }
+        return c;
+    }
+
+    /**
+     * Returns a new object mapper for CBOR.
+     * This method gets called only once per factory.
+     */
+    public ObjectMapper objectMapper() {
+        return configure(new ObjectMapper(new CBORFactory()));
+    }
+
+    /**
+     * Configures and returns the given object mapper.
+     */
+    protected final ObjectMapper configure(final ObjectMapper mapper) {
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_DEFAULT);
+        final SimpleModule module = new SimpleModule();
+        module.addAbstractTypeMapping(License.class, V5License.class);
+        module.addSerializer(new StdSerializer<X500Principal>(X500Principal.class) {
+
+            @Override
+            public void serialize(X500Principal value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeString(value.getName());
+            }
+        });
+        module.addDeserializer(X500Principal.class, new StdDeserializer<X500Principal>(X500Principal.class) {
+
+            @Override
+            public X500Principal deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                return new X500Principal(p.readValueAs(String.class));
+            }
+        });
+        mapper.registerModule(module);
+        return mapper;
+    }
+}
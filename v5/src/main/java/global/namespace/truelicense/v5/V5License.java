@@ -0,0 +1,9 @@
+package global.namespace.truelicense.v5;
+
+import global.namespace.truelicense.core.AbstractLicense;
+
+/**
+ * A license for use with V5 format license keys.
+ */
+public class V5License extends AbstractLicense {
+}
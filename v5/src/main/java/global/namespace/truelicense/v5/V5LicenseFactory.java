@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v5;
+
+import global.namespace.truelicense.api.License;
+import global.namespace.truelicense.api.LicenseFactory;
+
+/**
+ * A license factory for use with V5 format license keys.
+ */
+final class V5LicenseFactory implements LicenseFactory {
+
+    @Override
+    public License license() {
+        return new V5License();
+    }
+
+    @Override
+    public Class<? extends License> licenseClass() {
+        return V5License.class;
+    }
+}
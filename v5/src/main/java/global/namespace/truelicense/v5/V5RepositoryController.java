@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v5;
+
+import global.namespace.fun.io.api.Decoder;
+import global.namespace.fun.io.api.Socket;
+import global.namespace.truelicense.api.auth.RepositoryController;
+import global.namespace.truelicense.api.auth.RepositoryIntegrityException;
+import global.namespace.truelicense.api.codec.Codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.security.Signature;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A repository controller for use with V5 format license keys.
+ * The encoded artifact is signed, verified and decoded directly from the binary data in the repository model.
+ */
+final class V5RepositoryController implements RepositoryController {
+
+    private final Codec codec;
+    private final V5RepositoryModel model;
+
+    V5RepositoryController(final Codec codec, final V5RepositoryModel model) {
+        this.codec = requireNonNull(codec);
+        this.model = requireNonNull(model);
+    }
+
+    @Override
+    public final Decoder sign(final Signature engine, final Object artifact) throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        codec.encoder(() -> buffer).encode(artifact);
+        final byte[] artifactData = buffer.toByteArray();
+        engine.update(artifactData);
+
+        model.artifact = artifactData;
+        model.signature = engine.sign();
+        model.algorithm = engine.getAlgorithm();
+
+        return decoder(artifactData);
+    }
+
+    @Override
+    public final Decoder verify(final Signature engine) throws Exception {
+        if (!engine.getAlgorithm().equalsIgnoreCase(model.algorithm)) {
+            throw new IllegalArgumentException();
+        }
+        final byte[] artifactData = model.artifact;
+        engine.update(artifactData);
+        if (!engine.verify(model.signature)) {
+            throw new RepositoryIntegrityException();
+        }
+        return decoder(artifactData);
+    }
+
+    private Decoder decoder(final byte[] artifactData) {
+        return codec.decoder((Socket<InputStream>) () -> new ByteArrayInputStream(artifactData));
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v5;
+
+import global.namespace.truelicense.api.auth.RepositoryController;
+import global.namespace.truelicense.api.auth.RepositoryFactory;
+import global.namespace.truelicense.api.codec.Codec;
+
+/**
+ * A repository factory for use with V5 format license keys.
+ */
+final class V5RepositoryFactory implements RepositoryFactory<V5RepositoryModel> {
+
+    @Override
+    public V5RepositoryModel model() {
+        return new V5RepositoryModel();
+    }
+
+    @Override
+    public Class<V5RepositoryModel> modelClass() {
+        return V5RepositoryModel.class;
+    }
+
+    @Override
+    public RepositoryController controller(Codec codec, V5RepositoryModel model) {
+        return new V5RepositoryController(codec, model);
+    }
+}
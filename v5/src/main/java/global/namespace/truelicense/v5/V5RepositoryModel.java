@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2005 - 2019 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package global.namespace.truelicense.v5;
+
+/**
+ * A repository model for use with V5 format license keys.
+ * Unlike V4 format license keys, the encoded artifact and its signature are stored as binary data.
+ */
+@SuppressWarnings("WeakerAccess")
+final class V5RepositoryModel {
+
+    public String algorithm;
+
+    public byte[] artifact, signature;
+}